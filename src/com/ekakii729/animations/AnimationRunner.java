@@ -7,6 +7,7 @@
 package com.ekakii729.animations;
 import com.ekakii729.graphicsLibrary.GraphicsConsole;
 import java.io.IOException;
+import java.util.SplittableRandom;
 
 public class AnimationRunner {
 
@@ -15,35 +16,39 @@ public class AnimationRunner {
     /** Method Name: runAnimations
      * @Author Abhay Manoj
      * @Date November 15, 2023
-     * @Modified November 15, 2023
-     * @Description runs all the animations in package
-     * @Parameters N/A
+     * @Modified October 19, 2026
+     * @Description runs all the animations in package, every animation seeded from the run seed so the run can be replayed
+     * @Parameters runSeed - seed that all animation seeds are derived from
      * @Returns N/A, Data Type: Void
-     * Dependencies: GraphicsConsole
+     * Dependencies: GraphicsConsole, SplittableRandom
      * Throws/Exceptions: IOException, InterruptedException
      */
 
-    private static void runAnimations() throws IOException, InterruptedException {
-        GraphicsConsole console = new GraphicsConsole(800,800, "Abhay's Animations"); // console to show graphics
+    private static void runAnimations(long runSeed) throws IOException, InterruptedException {
+        GraphicsConsole console = new GraphicsConsole(800,800, "Abhay's Animations (seed " + runSeed + ")"); // console to show graphics
+        SplittableRandom seeds = new SplittableRandom(runSeed); // hands each animation its own seed
         while (true) {
             new SunsetAnimation(console, numberOfFrames);
-            new SpaceAnimation(console, numberOfFrames);
-            new PhoneAnimation(console, numberOfFrames);
+            new SpaceAnimation(console, numberOfFrames, seeds.nextLong());
+            new WarpAnimation(console, numberOfFrames, seeds.nextLong());
+            new PhoneAnimation(console, numberOfFrames, seeds.nextLong());
         }
     }
 
     /** Method Name: main
      * @Author Abhay Manoj
      * @Date November 15, 2023
-     * @Modified November 15, 2023
-     * @Description main method of the program
+     * @Modified October 19, 2026
+     * @Description main method of the program, pass a seed as the first argument to replay a previous run
      * @Parameters args - arguments to be passed in
      * @Returns N/A, Data Type: Void
-     * Dependencies: N/A
+     * Dependencies: SplittableRandom
      * Throws/Exceptions: IOException, InterruptedException
      */
 
     public static void main(String[] args) throws IOException, InterruptedException {
-        runAnimations();
+        long runSeed = args.length > 0 ? Long.parseLong(args[0]) : new SplittableRandom().nextLong(); // seed of this run
+        System.out.println("Run seed: " + runSeed + " (pass it as an argument to replay this run)");
+        runAnimations(runSeed);
     }
 }
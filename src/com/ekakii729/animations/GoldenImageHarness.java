@@ -0,0 +1,211 @@
+/*
+ * Author: Abhay Manoj
+ * Purpose: Renders chosen animation frames and compares them against stored golden images
+ * Date of Creation: October 19, 2026
+ */
+
+package com.ekakii729.animations;
+import com.ekakii729.graphicsLibrary.GraphicsSurface;
+import com.ekakii729.graphicsLibrary.OffscreenConsole;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import javax.imageio.ImageIO;
+
+public class GoldenImageHarness {
+
+    static class DiffResult {
+
+        private final String name; // name of the frame that was compared
+        private final boolean passed; // whether the frame matched its golden closely enough
+        private final String detail; // explanation shown in the report
+
+        DiffResult(String name, boolean passed, String detail) {
+            this.name = name;
+            this.passed = passed;
+            this.detail = detail;
+        }
+    }
+
+    private static final long SEED = 729; // fixed run seed so every frame is reproducible
+    private static final File GOLDEN_DIRECTORY = new File("goldens"); // where the golden images live
+    private static final File FAILURE_DIRECTORY = new File(GOLDEN_DIRECTORY, "failures"); // where actual frames and heatmaps go on failure
+    private static final double PIXEL_THRESHOLD = 0.1; // perceptual distance above which a pixel counts as different, from 0 to 1
+    private static final double ALLOWED_DIFFERENT_PIXELS = 0.005; // fraction of pixels allowed to differ before a frame fails
+    private static final double MAX_YIQ_DELTA = 35215.0; // largest possible squared YIQ distance between two colours
+
+    /** Method Name: renderFrames
+     * @Author Abhay Manoj
+     * @Date October 19, 2026
+     * @Modified October 19, 2026
+     * @Description runs every animation with a fixed seed and keeps the frames that have goldens, all taken before the fade out
+     * @Parameters console - surface the animations draw on
+     * @Returns frame name mapped to the rendered frame, Data Type: Map<String, BufferedImage>
+     * Dependencies: GraphicsSurface
+     * Throws/Exceptions: IOException, InterruptedException
+     */
+
+    private static Map<String, BufferedImage> renderFrames(GraphicsSurface console) throws IOException, InterruptedException {
+        Map<String, BufferedImage> frames = new TreeMap<>();
+        captureFrames(console, frames, "sunset", 0, 5, 9);
+        new SunsetAnimation(console, 10);
+        captureFrames(console, frames, "space", 0, 5, 9);
+        new SpaceAnimation(console, 10, SEED);
+        captureFrames(console, frames, "warp", 0, 5, 9);
+        new WarpAnimation(console, 10, SEED);
+        captureFrames(console, frames, "phone", 0, 1);
+        new PhoneAnimation(console, 10, SEED);
+        console.setFrameListener(null);
+        return frames;
+    }
+
+    /** Method Name: captureFrames
+     * @Author Abhay Manoj
+     * @Date October 19, 2026
+     * @Modified October 19, 2026
+     * @Description makes the console save the chosen frames of the next animation that runs
+     * @Parameters console - surface the animations draw on, frames - where captured frames are stored, animationName - prefix of the frame names, frameNumbers - frames to keep
+     * @Returns N/A, Data Type: Void
+     * Dependencies: GraphicsSurface
+     * Throws/Exceptions: N/A
+     */
+
+    private static void captureFrames(GraphicsSurface console, Map<String, BufferedImage> frames, String animationName, int... frameNumbers) {
+        console.setFrameListener((image, frameNumber) -> {
+            for (int wanted : frameNumbers) if (wanted == frameNumber) frames.put(animationName + "-frame-" + frameNumber, image);
+        });
+    }
+
+    /** Method Name: compareFrame
+     * @Author Abhay Manoj
+     * @Date October 19, 2026
+     * @Modified October 19, 2026
+     * @Description compares one frame against its golden, failing if there is no golden unless it is being recorded
+     * @Parameters name - name of the frame, actual - the rendered frame, update - whether to overwrite the golden
+     * @Returns result of the comparison, Data Type: DiffResult
+     * Dependencies: ImageIO
+     * Throws/Exceptions: UncheckedIOException
+     */
+
+    private static DiffResult compareFrame(String name, BufferedImage actual, boolean update) {
+        File goldenFile = new File(GOLDEN_DIRECTORY, name + ".png");
+        try {
+            if (update) {
+                ImageIO.write(actual, "png", goldenFile);
+                return new DiffResult(name, true, "recorded new golden");
+            }
+            if (!goldenFile.exists()) return new DiffResult(name, false, "no golden, run with --update to record it");
+            BufferedImage golden = ImageIO.read(goldenFile);
+            if (golden.getWidth() != actual.getWidth() || golden.getHeight() != actual.getHeight()) {
+                ImageIO.write(actual, "png", new File(FAILURE_DIRECTORY, name + "-actual.png"));
+                return new DiffResult(name, false, "size " + actual.getWidth() + "x" + actual.getHeight() + " does not match golden " + golden.getWidth() + "x" + golden.getHeight());
+            }
+            BufferedImage heatmap = new BufferedImage(actual.getWidth(), actual.getHeight(), BufferedImage.TYPE_INT_RGB);
+            int differentPixels = 0; // pixels further apart than the threshold
+            for (int y = 0; y < actual.getHeight(); y++) {
+                for (int x = 0; x < actual.getWidth(); x++) {
+                    int goldenPixel = golden.getRGB(x, y), actualPixel = actual.getRGB(x, y);
+                    double distance = perceptualDistance(goldenPixel, actualPixel);
+                    if (distance > PIXEL_THRESHOLD) differentPixels++;
+                    heatmap.setRGB(x, y, heatmapColor(goldenPixel, distance));
+                }
+            }
+            double differentFraction = (double) differentPixels / (actual.getWidth() * actual.getHeight());
+            String detail = String.format("%.3f%% of pixels differ", differentFraction * 100);
+            if (differentFraction <= ALLOWED_DIFFERENT_PIXELS) return new DiffResult(name, true, detail);
+            ImageIO.write(actual, "png", new File(FAILURE_DIRECTORY, name + "-actual.png"));
+            ImageIO.write(heatmap, "png", new File(FAILURE_DIRECTORY, name + "-diff.png"));
+            return new DiffResult(name, false, detail);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to compare " + name, e);
+        }
+    }
+
+    /** Method Name: perceptualDistance
+     * @Author Abhay Manoj
+     * @Date October 19, 2026
+     * @Modified October 19, 2026
+     * @Description measures how different two colours look, using distance in YIQ space which weights brightness over hue
+     * @Parameters first - first ARGB colour, second - second ARGB colour
+     * @Returns distance between 0 (same) and 1 (black against white), Data Type: Double
+     * Dependencies: N/A
+     * Throws/Exceptions: N/A
+     */
+
+    static double perceptualDistance(int first, int second) {
+        if (first == second) return 0;
+        double red = blendOnWhite(first, 16) - blendOnWhite(second, 16);
+        double green = blendOnWhite(first, 8) - blendOnWhite(second, 8);
+        double blue = blendOnWhite(first, 0) - blendOnWhite(second, 0);
+        double luma = red * 0.29889531 + green * 0.58662247 + blue * 0.11448223;
+        double inPhase = red * 0.59597799 - green * 0.27417610 - blue * 0.32180189;
+        double quadrature = red * 0.21147017 - green * 0.52261711 + blue * 0.31114694;
+        return Math.sqrt((0.5053 * luma * luma + 0.299 * inPhase * inPhase + 0.1957 * quadrature * quadrature) / MAX_YIQ_DELTA);
+    }
+
+    /** Method Name: blendOnWhite
+     * @Author Abhay Manoj
+     * @Date October 19, 2026
+     * @Modified October 19, 2026
+     * @Description takes one channel of an ARGB colour as it would look over a white background
+     * @Parameters argb - the colour, shift - bit position of the channel
+     * @Returns the blended channel value from 0 to 255, Data Type: Double
+     * Dependencies: N/A
+     * Throws/Exceptions: N/A
+     */
+
+    private static double blendOnWhite(int argb, int shift) {
+        double alpha = (argb >>> 24) / 255.0;
+        return 255 + (((argb >> shift) & 0xFF) - 255) * alpha;
+    }
+
+    /** Method Name: heatmapColor
+     * @Author Abhay Manoj
+     * @Date October 19, 2026
+     * @Modified October 19, 2026
+     * @Description colours a heatmap pixel, faded grey where the frames agree and red where they differ
+     * @Parameters goldenPixel - the golden colour at this pixel, distance - perceptual distance at this pixel
+     * @Returns RGB colour of the heatmap pixel, Data Type: Int
+     * Dependencies: N/A
+     * Throws/Exceptions: N/A
+     */
+
+    private static int heatmapColor(int goldenPixel, double distance) {
+        if (distance > PIXEL_THRESHOLD) {
+            int red = (int) (128 + 127 * Math.min(1.0, distance));
+            return red << 16;
+        } int grey = (int) (blendOnWhite(goldenPixel, 8) * 0.1 + 230); // faded so differences stand out
+        return grey << 16 | grey << 8 | grey;
+    }
+
+    /** Method Name: main
+     * @Author Abhay Manoj
+     * @Date October 19, 2026
+     * @Modified October 19, 2026
+     * @Description main method of the program, pass "--update" to re-record every golden. Frames are drawn off screen, so no display is needed
+     * @Parameters args - arguments to be passed in
+     * @Returns N/A, Data Type: Void
+     * Dependencies: OffscreenConsole
+     * Throws/Exceptions: IOException, InterruptedException
+     */
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        boolean update = args.length > 0 && args[0].equals("--update"); // whether to overwrite existing goldens
+        GOLDEN_DIRECTORY.mkdirs();
+        FAILURE_DIRECTORY.mkdirs();
+        Map<String, BufferedImage> frames = renderFrames(new OffscreenConsole(800, 800));
+        List<DiffResult> results = frames.entrySet().parallelStream()
+                .map(frame -> compareFrame(frame.getKey(), frame.getValue(), update)).toList(); // one comparison per core
+        int failures = 0; // number of frames that did not match
+        for (DiffResult result : results) {
+            System.out.println((result.passed ? "PASS " : "FAIL ") + result.name + ": " + result.detail);
+            if (!result.passed) failures++;
+        }
+        System.out.println(results.size() - failures + " of " + results.size() + " frames match their goldens");
+        System.exit(failures == 0 ? 0 : 1);
+    }
+}
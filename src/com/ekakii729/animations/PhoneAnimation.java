@@ -7,15 +7,24 @@
 package com.ekakii729.animations;
 import com.ekakii729.graphicsLibrary.*;
 import java.awt.*;
-import java.util.Random;
+import java.util.SplittableRandom;
+import java.util.function.Predicate;
 
 public class PhoneAnimation {
 
-    private static final Random RANDOM = new Random(); // used to generate random numbers
-    private static GraphicsConsole console; // console used to show graphics
+    private static final int EQUALS_BUTTON = 61; // key code for equals button
+    private static final Predicate<ConsoleEvent> EQUALS_PRESSED = event -> event.getType() == ConsoleEvent.KEY_PRESSED && event.getKeyCode() == EQUALS_BUTTON; // ends a pause early
+    private static SplittableRandom random; // used to generate random numbers, seeded so runs can be replayed
+    private static GraphicsSurface console; // console used to show graphics
 
-    public PhoneAnimation(GraphicsConsole console, int numberOfFrames) throws InterruptedException {
+    public PhoneAnimation(GraphicsSurface console, int numberOfFrames) throws InterruptedException {
+        this(console, numberOfFrames, new SplittableRandom().nextLong());
+    }
+
+    public PhoneAnimation(GraphicsSurface console, int numberOfFrames, long seed) throws InterruptedException {
         PhoneAnimation.console = console;
+        random = new SplittableRandom(seed);
+        console.drainEvents(); // throw away key presses from earlier animations
         console.setColor(Color.PINK);
         console.fillRect(0,0,800,800);
         drawGraphics(numberOfFrames);
@@ -29,29 +38,48 @@ public class PhoneAnimation {
      * @Description draws the graphics on screen
      * @Parameters numberOfFrames - number of frames to run for
      * @Returns N/A, Data Type: Void
-     * Dependencies: GraphicsConsole
+     * Dependencies: GraphicsSurface
      * Throws/Exceptions: InterruptedException
      */
 
     private void drawGraphics(int numberOfFrames) throws InterruptedException {
         final int SLEEP_TIME_IN_MILLISECONDS = 2000; // the sleep time of the graphics
-        final int EQUALS_BUTTON = 61; // key code for equals button
         int frameCounter = 0; // counter for amount of elapsed frames
         while (frameCounter < numberOfFrames) {
-            console.drawString("Spam '=' to skip to next animation", 5, 780);
+            console.drawString("Press '=' to skip to next animation", 5, 780);
             console.setBackgroundColor(getRandomColor());
             drawPhoneBorder();
-            Thread.sleep(SLEEP_TIME_IN_MILLISECONDS);
-            if (console.getKeyCode() == EQUALS_BUTTON) break;
+            console.endFrame();
+            console.waitFor(SLEEP_TIME_IN_MILLISECONDS, EQUALS_PRESSED);
+            if (skipWasPressed()) break;
             drawPhoneScreen();
             drawText();
-            Thread.sleep(SLEEP_TIME_IN_MILLISECONDS);
-            if (console.getKeyCode() == EQUALS_BUTTON) break;
+            console.endFrame();
+            console.waitFor(SLEEP_TIME_IN_MILLISECONDS, EQUALS_PRESSED);
+            if (skipWasPressed()) break;
             console.clear();
             frameCounter += 10;
         }
     }
 
+    /** Method Name: skipWasPressed
+     * @Author Abhay Manoj
+     * @Date October 19, 2026
+     * @Modified October 19, 2026
+     * @Description checks every key press since the last check, so a quick tap during a sleep is not missed
+     * @Parameters N/A
+     * @Returns whether '=' was pressed, Data Type: Boolean
+     * Dependencies: GraphicsSurface, ConsoleEvent
+     * Throws/Exceptions: N/A
+     */
+
+    private boolean skipWasPressed() {
+        boolean pressed = false; // whether an equals press was found
+        for (ConsoleEvent event : console.drainEvents()) {
+            if (EQUALS_PRESSED.test(event)) pressed = true;
+        } return pressed;
+    }
+
     /** Method Name: getRandomColor
      * @Author Abhay Manoj
      * @Date November 15, 2023
@@ -59,12 +87,12 @@ public class PhoneAnimation {
      * @Description gets a random color
      * @Parameters N/A
      * @Returns a random color, Data Type: Color
-     * Dependencies: Random
+     * Dependencies: SplittableRandom
      * Throws/Exceptions: N/A
      */
 
     private Color getRandomColor() {
-        return new Color(RANDOM.nextInt(254) + 1, RANDOM.nextInt(254) + 1, RANDOM.nextInt(254) + 1); // max rgb value is 255
+        return new Color(random.nextInt(254) + 1, random.nextInt(254) + 1, random.nextInt(254) + 1); // max rgb value is 255
     }
 
     /** Method Name: drawPhoneBorder
@@ -74,7 +102,7 @@ public class PhoneAnimation {
      * @Description draws the border of the phone
      * @Parameters N/A
      * @Returns N/A, Data Type: Void
-     * Dependencies: GraphicsConsole
+     * Dependencies: GraphicsSurface
      * Throws/Exceptions: N/A
      */
 
@@ -90,7 +118,7 @@ public class PhoneAnimation {
      * @Description draws the screen of the phone
      * @Parameters N/A
      * @Returns N/A, Data Type: Void
-     * Dependencies: GraphicsConsole
+     * Dependencies: GraphicsSurface
      * Throws/Exceptions: N/A
      */
 
@@ -106,7 +134,7 @@ public class PhoneAnimation {
      * @Description draws the text on the screen
      * @Parameters N/A
      * @Returns N/A, Data Type: Void
-     * Dependencies: GraphicsConsole
+     * Dependencies: GraphicsSurface
      * Throws/Exceptions: N/A
      */
 
@@ -125,7 +153,7 @@ public class PhoneAnimation {
      * @Description fades the screen out
      * @Parameters N/A
      * @Returns N/A, Data Type: Void
-     * Dependencies: GraphicsConsole
+     * Dependencies: GraphicsSurface
      * Throws/Exceptions: InterruptedException
      */
 
@@ -137,6 +165,7 @@ public class PhoneAnimation {
         while (fadeOutFrames > 0) {
             console.setColor(new Color(0,0,0, 0.1f)); // black, gets darker as the loop continues
             console.fillRect(0,0,800,800);
+            console.endFrame();
             Thread.sleep(100);
             fadeOutFrames--;
         }
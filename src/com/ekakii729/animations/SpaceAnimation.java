@@ -10,13 +10,12 @@ import java.io.*;
 import java.awt.*;
 import java.awt.image.*;
 import javax.imageio.*;
-import java.util.Random;
+import java.util.SplittableRandom;
 
 public class SpaceAnimation {
 
     static class Star {
 
-        private static final Random RANDOM = new Random(); // to generate random numbers
         private static int starSize = 20; // diameter of star
         private int xPosition; // x position of star
         private int yPosition; // y position of star
@@ -31,17 +30,17 @@ public class SpaceAnimation {
          * @Date November 15, 2023
          * @Modified November 15, 2023
          * @Description generates x and y position for star
-         * @Parameters N/A
+         * @Parameters random - source of random numbers for the animation
          * @Returns N/A, Data Type: Void
-         * Dependencies: N/A
+         * Dependencies: SplittableRandom
          * Throws/Exceptions: N/A
          */
 
-        public void generateXY() {
+        public void generateXY(SplittableRandom random) {
             final int MIN_POSITION_VALUE = 10; // the minimum position of the star
             final int MAX_POSITION_VALUE = 790; // the max position of the star
-            xPosition = RANDOM.nextInt(MIN_POSITION_VALUE, MAX_POSITION_VALUE);
-            yPosition = RANDOM.nextInt(MIN_POSITION_VALUE, MAX_POSITION_VALUE);
+            xPosition = random.nextInt(MIN_POSITION_VALUE, MAX_POSITION_VALUE);
+            yPosition = random.nextInt(MIN_POSITION_VALUE, MAX_POSITION_VALUE);
         }
 
         /** Method Name: draw
@@ -51,11 +50,11 @@ public class SpaceAnimation {
          * @Description draws a star
          * @Parameters console - console used to show graphics
          * @Returns N/A, Data Type: Void
-         * Dependencies: GraphicsConsole
+         * Dependencies: GraphicsSurface
          * Throws/Exceptions: N/A
          */
 
-        public void draw(GraphicsConsole console) {
+        public void draw(GraphicsSurface console) {
             console.fillStar(xPosition, yPosition, starSize, starSize);
         }
 
@@ -65,13 +64,19 @@ public class SpaceAnimation {
 
     private static final Star[] STARS_LIST = new Star[100]; // list of stars
     private static BufferedImage rocketShip; // image of the rocket
-    private static GraphicsConsole console; // graphics console used to show graphics
+    private static GraphicsSurface console; // graphics console used to show graphics
+    private static SplittableRandom random; // used to generate random numbers, seeded so runs can be replayed
     private static boolean starsHaveReachedMaxSize = false; // seeing if the stars have reached their max size
     private static int rocketX = -20; // x position of the rocket
     private static int rocketY = 850; // y position of the rocket
 
-    public SpaceAnimation(GraphicsConsole console, int numberOfFrames) throws IOException, InterruptedException {
+    public SpaceAnimation(GraphicsSurface console, int numberOfFrames) throws IOException, InterruptedException {
+        this(console, numberOfFrames, new SplittableRandom().nextLong());
+    }
+
+    public SpaceAnimation(GraphicsSurface console, int numberOfFrames, long seed) throws IOException, InterruptedException {
         SpaceAnimation.console = console;
+        random = new SplittableRandom(seed);
         init();
         console.setBackgroundColor(Color.BLACK);
         drawGraphics(numberOfFrames);
@@ -85,7 +90,7 @@ public class SpaceAnimation {
      * @Description initializes some aspects of program
      * @Parameters N/A
      * @Returns N/A, Data Type: Void
-     * Dependencies: GraphicsConsole, ImageIO
+     * Dependencies: GraphicsSurface, ImageIO
      * Throws/Exceptions: IOException
      */
 
@@ -102,7 +107,7 @@ public class SpaceAnimation {
      * @Description draws the graphics on screen
      * @Parameters numberOfFrames - number of frames to run for
      * @Returns N/A, Data Type: Void
-     * Dependencies: GraphicsConsole
+     * Dependencies: GraphicsSurface
      * Throws/Exceptions: InterruptedException
      */
 
@@ -118,6 +123,7 @@ public class SpaceAnimation {
             writeHelpText();
             drawRocket();
             moveRocket();
+            console.endFrame();
             Thread.sleep(SLEEP_TIME_IN_MILLISECONDS);
             console.clear();
             frameCounter++;
@@ -131,14 +137,14 @@ public class SpaceAnimation {
      * @Description fills star list
      * @Parameters N/A
      * @Returns N/A, Data Type: Void
-     * Dependencies: N/A
+     * Dependencies: SplittableRandom
      * Throws/Exceptions: N/A
      */
 
     private void createStars() {
         for (int i = 0; i < STARS_LIST.length; i++) {
             STARS_LIST[i] = new Star();
-            STARS_LIST[i].generateXY();
+            STARS_LIST[i].generateXY(random);
         }
     }
 
@@ -149,7 +155,7 @@ public class SpaceAnimation {
      * @Description draws stars on screen
      * @Parameters N/A
      * @Returns N/A, Data Type: Void
-     * Dependencies: GraphicsConsole
+     * Dependencies: GraphicsSurface
      * Throws/Exceptions: N/A
      */
 
@@ -185,7 +191,7 @@ public class SpaceAnimation {
      * @Description writes help text on screen
      * @Parameters N/A
      * @Returns N/A, Data Type: Void
-     * Dependencies: GraphicsConsole
+     * Dependencies: GraphicsSurface
      * Throws/Exceptions: N/A
      */
 
@@ -203,7 +209,7 @@ public class SpaceAnimation {
      * @Description draws rocket on screen
      * @Parameters N/A
      * @Returns N/A, Data Type: Void
-     * Dependencies: GraphicsConsole
+     * Dependencies: GraphicsSurface
      * Throws/Exceptions: N/A
      */
 
@@ -242,7 +248,7 @@ public class SpaceAnimation {
      * @Description fades the screen out
      * @Parameters N/A
      * @Returns N/A, Data Type: Void
-     * Dependencies: GraphicsConsole
+     * Dependencies: GraphicsSurface
      * Throws/Exceptions: InterruptedException
      */
 
@@ -254,6 +260,7 @@ public class SpaceAnimation {
         while (fadeOutFrames > 0) {
             console.setColor(new Color(0,0,0, 0.1f)); // black, gets darker as the loop continues
             console.fillRect(0,0,800,800);
+            console.endFrame();
             Thread.sleep(100);
             fadeOutFrames--;
         }
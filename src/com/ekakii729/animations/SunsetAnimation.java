@@ -14,9 +14,9 @@ public class SunsetAnimation {
     private static int cloudX = 200; // x position of the cloud
     private static final int cloudY = 200; // y position of the cloud
     private static boolean sunHasSet = false; // checking if the sun has set
-    private static GraphicsConsole console; // graphics console used to show graphics
+    private static GraphicsSurface console; // graphics console used to show graphics
 
-    public SunsetAnimation(GraphicsConsole console, int numberOfFrames) throws InterruptedException {
+    public SunsetAnimation(GraphicsSurface console, int numberOfFrames) throws InterruptedException {
         SunsetAnimation.console = console;
         console.setBackgroundColor(Color.BLUE);
         drawGraphics(numberOfFrames);
@@ -30,7 +30,7 @@ public class SunsetAnimation {
      * @Description draws the graphics on screen
      * @Parameters numberOfFrames - number of frames to run for
      * @Returns N/A, Data Type: Void
-     * Dependencies: GraphicsConsole
+     * Dependencies: GraphicsSurface
      * Throws/Exceptions: InterruptedException
      */
 
@@ -43,6 +43,7 @@ public class SunsetAnimation {
             drawCloud();
             moveCloud();
             drawGround();
+            console.endFrame();
             Thread.sleep(SLEEP_TIME_IN_MILLISECONDS);
             console.clear();
             frameCounter++;
@@ -56,7 +57,7 @@ public class SunsetAnimation {
      * @Description draws the sun
      * @Parameters N/A
      * @Returns N/A, Data Type: Void
-     * Dependencies: GraphicsConsole
+     * Dependencies: GraphicsSurface
      * Throws/Exceptions: N/A
      */
 
@@ -74,7 +75,7 @@ public class SunsetAnimation {
      * @Description moves the sun
      * @Parameters N/A
      * @Returns N/A, Data Type: Void
-     * Dependencies: GraphicsConsole
+     * Dependencies: GraphicsSurface
      * Throws/Exceptions: N/A
      */
 
@@ -95,7 +96,7 @@ public class SunsetAnimation {
      * @Description draws the cloud
      * @Parameters N/A
      * @Returns N/A, Data Type: Void
-     * Dependencies: GraphicsConsole
+     * Dependencies: GraphicsSurface
      * Throws/Exceptions: N/A
      */
 
@@ -115,7 +116,7 @@ public class SunsetAnimation {
      * @Description moves the cloud
      * @Parameters N/A
      * @Returns N/A, Data Type: Void
-     * Dependencies: GraphicsConsole
+     * Dependencies: GraphicsSurface
      * Throws/Exceptions: N/A
      */
 
@@ -134,7 +135,7 @@ public class SunsetAnimation {
      * @Description draws the ground
      * @Parameters N/A
      * @Returns N/A, Data Type: Void
-     * Dependencies: GraphicsConsole
+     * Dependencies: GraphicsSurface
      * Throws/Exceptions: N/A
      */
 
@@ -150,7 +151,7 @@ public class SunsetAnimation {
      * @Description fades the screen out
      * @Parameters N/A
      * @Returns N/A, Data Type: Void
-     * Dependencies: GraphicsConsole
+     * Dependencies: GraphicsSurface
      * Throws/Exceptions: InterruptedException
      */
 
@@ -162,6 +163,7 @@ public class SunsetAnimation {
         while (fadeOutFrames > 0) {
             console.setColor(new Color(0,0,0, 0.1f)); // black, gets darker as the loop continues
             console.fillRect(0,0,800,800);
+            console.endFrame();
             Thread.sleep(100);
             fadeOutFrames--;
         }
@@ -0,0 +1,239 @@
+/*
+ * Author: Abhay Manoj
+ * Purpose: Warp Speed Starfield Animation
+ * Date of Creation: October 19, 2026
+ */
+
+package com.ekakii729.animations;
+import com.ekakii729.graphicsLibrary.*;
+import java.awt.*;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+public class WarpAnimation {
+
+    static class StarUpdateTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L; // RecursiveAction is Serializable, though tasks are never serialized
+        private static final int SEQUENTIAL_THRESHOLD = 8192; // stars updated by a single task before splitting stops
+        private final int start; // first star index handled by this task
+        private final int end; // one past the last star index handled by this task
+        private final transient SplittableRandom random; // random stream owned by this task, forked so results do not depend on scheduling
+
+        StarUpdateTask(int start, int end, SplittableRandom random) {
+            this.start = start;
+            this.end = end;
+            this.random = random;
+        }
+
+        /** Method Name: compute
+         * @Author Abhay Manoj
+         * @Date October 19, 2026
+         * @Modified October 19, 2026
+         * @Description splits the star range in half until it is small enough, then moves and projects those stars
+         * @Parameters N/A
+         * @Returns N/A, Data Type: Void
+         * Dependencies: RecursiveAction, SplittableRandom
+         * Throws/Exceptions: N/A
+         */
+
+        @Override
+        protected void compute() {
+            if (end - start <= SEQUENTIAL_THRESHOLD) {
+                for (int i = start; i < end; i++) updateStar(i, random);
+                return;
+            } int middle = (start + end) >>> 1;
+            invokeAll(new StarUpdateTask(start, middle, random), new StarUpdateTask(middle, end, random.split()));
+        }
+    }
+
+    private static final int NUMBER_OF_STARS = 200_000; // amount of stars in the field
+    private static final int WINDOW_SIZE = 800; // width and height of the window
+    private static final float CENTRE = WINDOW_SIZE / 2f; // screen position of the vanishing point
+    private static final float FOCAL_LENGTH = 400f; // distance from the eye to the projection plane
+    private static final float FIELD_RADIUS = 1000f; // half the width of the box stars are spawned in
+    private static final float NEAR_PLANE = 1f; // stars closer than this are recycled
+    private static final float FAR_PLANE = 1000f; // depth new stars are spawned at
+    private static final float WARP_SPEED = 8f; // distance travelled towards the viewer each frame
+    private static final float[] STAR_X = new float[NUMBER_OF_STARS]; // world x position of each star
+    private static final float[] STAR_Y = new float[NUMBER_OF_STARS]; // world y position of each star
+    private static final float[] STAR_Z = new float[NUMBER_OF_STARS]; // world depth of each star
+    private static final int[] STREAK_START_X = new int[NUMBER_OF_STARS]; // screen x of each streak's tail
+    private static final int[] STREAK_START_Y = new int[NUMBER_OF_STARS]; // screen y of each streak's tail
+    private static final int[] STREAK_END_X = new int[NUMBER_OF_STARS]; // screen x of each streak's head
+    private static final int[] STREAK_END_Y = new int[NUMBER_OF_STARS]; // screen y of each streak's head
+    private static final ForkJoinPool POOL = ForkJoinPool.commonPool(); // pool used to update stars in parallel
+    private static GraphicsSurface console; // graphics console used to show graphics
+    private static SplittableRandom random; // used to generate random numbers, seeded so runs can be replayed
+
+    public WarpAnimation(GraphicsSurface console, int numberOfFrames) throws InterruptedException {
+        this(console, numberOfFrames, new SplittableRandom().nextLong());
+    }
+
+    public WarpAnimation(GraphicsSurface console, int numberOfFrames, long seed) throws InterruptedException {
+        WarpAnimation.console = console;
+        random = new SplittableRandom(seed);
+        console.setBackgroundColor(Color.BLACK);
+        createStars();
+        drawGraphics(numberOfFrames);
+        fadeOut();
+    }
+
+    /** Method Name: drawGraphics
+     * @Author Abhay Manoj
+     * @Date October 19, 2026
+     * @Modified October 19, 2026
+     * @Description draws the graphics on screen
+     * @Parameters numberOfFrames - number of frames to run for
+     * @Returns N/A, Data Type: Void
+     * Dependencies: GraphicsSurface
+     * Throws/Exceptions: InterruptedException
+     */
+
+    private void drawGraphics(int numberOfFrames) throws InterruptedException {
+        final int SLEEP_TIME_IN_MILLISECONDS = 16; // the sleep time of the graphic, roughly 60 frames per second
+        int frameCounter = 0; // count of elapsed frames
+        while (frameCounter < numberOfFrames) {
+            updateStars();
+            console.clear();
+            drawStars();
+            console.endFrame();
+            Thread.sleep(SLEEP_TIME_IN_MILLISECONDS);
+            frameCounter++;
+        }
+    }
+
+    /** Method Name: createStars
+     * @Author Abhay Manoj
+     * @Date October 19, 2026
+     * @Modified October 19, 2026
+     * @Description spreads the stars through the whole depth of the field so they do not arrive in one wave
+     * @Parameters N/A
+     * @Returns N/A, Data Type: Void
+     * Dependencies: SplittableRandom
+     * Throws/Exceptions: N/A
+     */
+
+    private void createStars() {
+        for (int i = 0; i < NUMBER_OF_STARS; i++) {
+            recycleStar(i, random);
+            STAR_Z[i] = random.nextFloat(NEAR_PLANE, FAR_PLANE);
+        }
+    }
+
+    /** Method Name: updateStars
+     * @Author Abhay Manoj
+     * @Date October 19, 2026
+     * @Modified October 19, 2026
+     * @Description moves and projects every star, split across all cores
+     * @Parameters N/A
+     * @Returns N/A, Data Type: Void
+     * Dependencies: ForkJoinPool, SplittableRandom
+     * Throws/Exceptions: N/A
+     */
+
+    private void updateStars() {
+        POOL.invoke(new StarUpdateTask(0, NUMBER_OF_STARS, random.split()));
+    }
+
+    /** Method Name: updateStar
+     * @Author Abhay Manoj
+     * @Date October 19, 2026
+     * @Modified October 19, 2026
+     * @Description moves one star towards the viewer and projects its motion streak, recycling it if it leaves the view
+     * @Parameters index - index of the star to update, random - source of random numbers for recycling
+     * @Returns N/A, Data Type: Void
+     * Dependencies: SplittableRandom
+     * Throws/Exceptions: N/A
+     */
+
+    private static void updateStar(int index, SplittableRandom random) {
+        float previousZ = STAR_Z[index]; // depth before moving, used for the tail of the streak
+        float currentZ = previousZ - WARP_SPEED; // depth after moving
+        if (currentZ > NEAR_PLANE) {
+            float headX = CENTRE + STAR_X[index] / currentZ * FOCAL_LENGTH;
+            float headY = CENTRE + STAR_Y[index] / currentZ * FOCAL_LENGTH;
+            if (headX >= 0 && headX < WINDOW_SIZE && headY >= 0 && headY < WINDOW_SIZE) {
+                STAR_Z[index] = currentZ;
+                STREAK_START_X[index] = (int) (CENTRE + STAR_X[index] / previousZ * FOCAL_LENGTH);
+                STREAK_START_Y[index] = (int) (CENTRE + STAR_Y[index] / previousZ * FOCAL_LENGTH);
+                STREAK_END_X[index] = (int) headX;
+                STREAK_END_Y[index] = (int) headY;
+                return;
+            }
+        } recycleStar(index, random);
+    }
+
+    /** Method Name: recycleStar
+     * @Author Abhay Manoj
+     * @Date October 19, 2026
+     * @Modified October 19, 2026
+     * @Description moves a star back to the far plane at a new random position, drawn as a single point
+     * @Parameters index - index of the star to recycle, random - source of random numbers
+     * @Returns N/A, Data Type: Void
+     * Dependencies: SplittableRandom
+     * Throws/Exceptions: N/A
+     */
+
+    private static void recycleStar(int index, SplittableRandom random) {
+        STAR_X[index] = random.nextFloat(-FIELD_RADIUS, FIELD_RADIUS);
+        STAR_Y[index] = random.nextFloat(-FIELD_RADIUS, FIELD_RADIUS);
+        STAR_Z[index] = FAR_PLANE;
+        STREAK_START_X[index] = STREAK_END_X[index] = (int) (CENTRE + STAR_X[index] / FAR_PLANE * FOCAL_LENGTH);
+        STREAK_START_Y[index] = STREAK_END_Y[index] = (int) (CENTRE + STAR_Y[index] / FAR_PLANE * FOCAL_LENGTH);
+    }
+
+    /** Method Name: drawStars
+     * @Author Abhay Manoj
+     * @Date October 19, 2026
+     * @Modified October 19, 2026
+     * @Description draws every star's streak in one batch
+     * @Parameters N/A
+     * @Returns N/A, Data Type: Void
+     * Dependencies: GraphicsSurface
+     * Throws/Exceptions: N/A
+     */
+
+    private void drawStars() {
+        console.setColor(Color.WHITE);
+        console.drawLines(STREAK_START_X, STREAK_START_Y, STREAK_END_X, STREAK_END_Y, NUMBER_OF_STARS);
+    }
+
+    /** Method Name: fadeOut
+     * @Author Abhay Manoj
+     * @Date October 19, 2026
+     * @Modified October 19, 2026
+     * @Description fades the screen out
+     * @Parameters N/A
+     * @Returns N/A, Data Type: Void
+     * Dependencies: GraphicsSurface
+     * Throws/Exceptions: InterruptedException
+     */
+
+    private void fadeOut() throws InterruptedException {
+        int fadeOutFrames = 50; // amount of frames to fade out
+        while (fadeOutFrames > 0) {
+            console.setColor(new Color(0,0,0, 0.1f)); // black, gets darker as the loop continues
+            console.fillRect(0,0,800,800);
+            console.endFrame();
+            Thread.sleep(100);
+            fadeOutFrames--;
+        }
+    }
+
+    /** Method Name: main
+     * @Author Abhay Manoj
+     * @Date October 19, 2026
+     * @Modified October 19, 2026
+     * @Description main method of the program
+     * @Parameters args - arguments to be passed in
+     * @Returns N/A, Data Type: Void
+     * Dependencies: N/A
+     * Throws/Exceptions: InterruptedException
+     */
+
+    public static void main(String[] args) throws InterruptedException {
+        new WarpAnimation(new GraphicsConsole(800,800), 600);
+    }
+}
@@ -0,0 +1,518 @@
+package com.ekakii729.graphicsLibrary;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Objects;
+
+/**
+ * The BinaryInputFile class reads numbers written by BinaryOutputFile.
+ * Each read method reads back what the matching write method wrote, in
+ * the same byte order.
+ * <p>
+ * The file is read from its channel into a direct buffer a block at a
+ * time, and whole arrays are copied out of the buffer in a single bulk copy.
+ * If the file starts with a header, call readHeader before anything else:
+ * it returns the schema the file was written with and switches to the
+ * byte order the file was written in.
+ * <p>
+ * @author Abhay Manoj
+ * @version 3.0
+ */
+public class BinaryInputFile
+{
+	protected static final int BUFFER_SIZE = 64 * 1024;
+
+	/**
+	 * The file name.
+	 */
+	protected String fileName;
+
+	/**
+	 * The channel read from and the buffer of bytes read but not yet used.
+	 */
+	protected FileChannel channel = null;
+	protected ByteBuffer buffer;
+
+	/**
+	 * Set if the file has been closed.
+	 */
+	protected boolean closed = false;
+
+	/**
+	 * Set once the channel has no more bytes.
+	 */
+	protected boolean channelEmpty = false;
+
+
+	/**
+	 * Contructor - BinaryInputFile to read big-endian values from the file
+	 * with the specified name.
+	 *
+	 * @param fileName - Name of the file to be opened.
+	 */
+	public BinaryInputFile (String fileName)
+	{
+		this (fileName, ByteOrder.BIG_ENDIAN);
+	} // Constructor - BinaryInputFile (String)
+
+
+	/**
+	 * Contructor - BinaryInputFile to read values in the specified byte
+	 * order from the file with the specified name.
+	 *
+	 * @param fileName - Name of the file to be opened.
+	 * @param order - The byte order the values were written in.
+	 */
+	public BinaryInputFile (String fileName, ByteOrder order)
+	{
+		this.fileName = fileName;
+		try
+		{
+			channel = FileChannel.open (Paths.get (fileName), StandardOpenOption.READ);
+		}
+		catch (IOException e)
+		{
+			new FatalError ("Unable to open file \"" + fileName + "\"");
+			// Never reaches here
+		}
+		buffer = ByteBuffer.allocateDirect (BUFFER_SIZE).order (order);
+		buffer.limit (0);
+	} // Constructor - BinaryInputFile (String, ByteOrder)
+
+
+	/**
+	 * Return the byte order values are read in.
+	 *
+	 * @return The byte order.
+	 */
+	public ByteOrder getByteOrder ()
+	{
+		return (buffer.order ());
+	} // ByteOrder getByteOrder (void)
+
+
+	/**
+	 * Read the header written by BinaryOutputFile.writeHeader and switch
+	 * to the byte order it records.
+	 *
+	 * @return The schema string from the header.
+	 */
+	public String readHeader ()
+	{
+		buffer.order (ByteOrder.BIG_ENDIAN);
+		if (!hasBytes (5) || readInt () != BinaryOutputFile.HEADER_MAGIC)
+		{
+			new FatalError ("\"" + fileName + "\" does not start with a header");
+			// Never reaches here.
+		}
+		byte flag = readByte ();
+		if (flag != BinaryOutputFile.BIG_ENDIAN_FLAG && flag != BinaryOutputFile.LITTLE_ENDIAN_FLAG)
+		{
+			new FatalError ("\"" + fileName + "\" has an unknown byte order in its header");
+			// Never reaches here.
+		}
+		buffer.order (flag == BinaryOutputFile.BIG_ENDIAN_FLAG ? ByteOrder.BIG_ENDIAN
+				: ByteOrder.LITTLE_ENDIAN);
+		return (readString ());
+	} // String readHeader (void)
+
+
+	/**
+	 * Close the file to further reading.
+	 */
+	public void close ()
+	{
+		if (closed)
+		{
+			new FatalError ("\"" + fileName + "\" is already closed.");
+			// Never reaches here.
+		}
+		try
+		{
+			channel.close ();
+		}
+		catch (IOException e)
+		{
+			new FatalError ("Close failed: Unable to close \"" + fileName + "\"");
+			// Never reaches here.
+		}
+		channel = null;
+		closed = true;
+	} // close (void)
+
+
+	/**
+	 * Return whether the end of the file has been reached.
+	 *
+	 * @return Whether there is nothing left to read.
+	 */
+	public boolean eof ()
+	{
+		return (!hasBytes (1));
+	} // boolean eof (void)
+
+
+	/**
+	 * Read a boolean from the file.
+	 *
+	 * @return The boolean value read from the file.
+	 */
+	public boolean readBoolean ()
+	{
+		return (readByte () != 0);
+	} // boolean readBoolean (void)
+
+
+	/**
+	 * Read an 8-bit integer (a "byte") from the file.
+	 *
+	 * @return The byte value read from the file.
+	 */
+	public byte readByte ()
+	{
+		return (need (1).get ());
+	} // byte readByte (void)
+
+
+	/**
+	 * Read a 16-bit character from the file.
+	 *
+	 * @return The character read from the file.
+	 */
+	public char readChar ()
+	{
+		return (need (2).getChar ());
+	} // char readChar (void)
+
+
+	/**
+	 * Read a 16-bit integer (a "short") from the file.
+	 *
+	 * @return The short value read from the file.
+	 */
+	public short readShort ()
+	{
+		return (need (2).getShort ());
+	} // short readShort (void)
+
+
+	/**
+	 * Read a 32-bit integer (an "int") from the file.
+	 *
+	 * @return The int value read from the file.
+	 */
+	public int readInt ()
+	{
+		return (need (4).getInt ());
+	} // int readInt (void)
+
+
+	/**
+	 * Read a 64-bit integer (a "long") from the file.
+	 *
+	 * @return The long value read from the file.
+	 */
+	public long readLong ()
+	{
+		return (need (8).getLong ());
+	} // long readLong (void)
+
+
+	/**
+	 * Read a floating point number (a "float") from the file.
+	 *
+	 * @return The float value read from the file.
+	 */
+	public float readFloat ()
+	{
+		return (need (4).getFloat ());
+	} // float readFloat (void)
+
+
+	/**
+	 * Read a double precision floating point number (a "double") from the file.
+	 *
+	 * @return The double value read from the file.
+	 */
+	public double readDouble ()
+	{
+		return (need (8).getDouble ());
+	} // double readDouble (void)
+
+
+	/**
+	 * Read a string written by BinaryOutputFile.writeString.
+	 *
+	 * @return The string read from the file.
+	 */
+	public String readString ()
+	{
+		byte[] bytes = new byte [readLength (1)];
+		readBytes (bytes, 0, bytes.length);
+		return (new String (bytes, StandardCharsets.UTF_8));
+	} // String readString (void)
+
+
+	/**
+	 * Read len bytes from the file into an array.
+	 *
+	 * @param dest - The array to read into.
+	 * @param off - Where in the array to put the first byte.
+	 * @param len - The number of bytes to read.
+	 */
+	public void readBytes (byte[] dest, int off, int len)
+	{
+		Objects.checkFromIndexSize (off, len, dest.length);
+		while (len > 0)
+		{
+			int count = Math.min (len, need (1).remaining ());
+			buffer.get (dest, off, count);
+			off += count;
+			len -= count;
+		}
+	} // void readBytes (byte[], int, int)
+
+
+	/**
+	 * Read len ints from the file into an array.
+	 *
+	 * @param dest - The array to read into.
+	 * @param off - Where in the array to put the first number.
+	 * @param len - The number of numbers to read.
+	 */
+	public void readInts (int[] dest, int off, int len)
+	{
+		Objects.checkFromIndexSize (off, len, dest.length);
+		while (len > 0)
+		{
+			int count = Math.min (len, need (4).remaining () / 4);
+			buffer.asIntBuffer ().get (dest, off, count);
+			buffer.position (buffer.position () + count * 4);
+			off += count;
+			len -= count;
+		}
+	} // void readInts (int[], int, int)
+
+
+	/**
+	 * Read len longs from the file into an array.
+	 *
+	 * @param dest - The array to read into.
+	 * @param off - Where in the array to put the first number.
+	 * @param len - The number of numbers to read.
+	 */
+	public void readLongs (long[] dest, int off, int len)
+	{
+		Objects.checkFromIndexSize (off, len, dest.length);
+		while (len > 0)
+		{
+			int count = Math.min (len, need (8).remaining () / 8);
+			buffer.asLongBuffer ().get (dest, off, count);
+			buffer.position (buffer.position () + count * 8);
+			off += count;
+			len -= count;
+		}
+	} // void readLongs (long[], int, int)
+
+
+	/**
+	 * Read len floats from the file into an array.
+	 *
+	 * @param dest - The array to read into.
+	 * @param off - Where in the array to put the first number.
+	 * @param len - The number of numbers to read.
+	 */
+	public void readFloats (float[] dest, int off, int len)
+	{
+		Objects.checkFromIndexSize (off, len, dest.length);
+		while (len > 0)
+		{
+			int count = Math.min (len, need (4).remaining () / 4);
+			buffer.asFloatBuffer ().get (dest, off, count);
+			buffer.position (buffer.position () + count * 4);
+			off += count;
+			len -= count;
+		}
+	} // void readFloats (float[], int, int)
+
+
+	/**
+	 * Read len doubles from the file into an array.
+	 *
+	 * @param dest - The array to read into.
+	 * @param off - Where in the array to put the first number.
+	 * @param len - The number of numbers to read.
+	 */
+	public void readDoubles (double[] dest, int off, int len)
+	{
+		Objects.checkFromIndexSize (off, len, dest.length);
+		while (len > 0)
+		{
+			int count = Math.min (len, need (8).remaining () / 8);
+			buffer.asDoubleBuffer ().get (dest, off, count);
+			buffer.position (buffer.position () + count * 8);
+			off += count;
+			len -= count;
+		}
+	} // void readDoubles (double[], int, int)
+
+
+	/**
+	 * Read an array of bytes written by BinaryOutputFile.writeByteArray.
+	 *
+	 * @return The array read from the file.
+	 */
+	public byte[] readByteArray ()
+	{
+		byte[] array = new byte [readLength (1)];
+		readBytes (array, 0, array.length);
+		return (array);
+	} // byte[] readByteArray (void)
+
+
+	/**
+	 * Read an array of ints written by BinaryOutputFile.writeIntArray.
+	 *
+	 * @return The array read from the file.
+	 */
+	public int[] readIntArray ()
+	{
+		int[] array = new int [readLength (4)];
+		readInts (array, 0, array.length);
+		return (array);
+	} // int[] readIntArray (void)
+
+
+	/**
+	 * Read an array of longs written by BinaryOutputFile.writeLongArray.
+	 *
+	 * @return The array read from the file.
+	 */
+	public long[] readLongArray ()
+	{
+		long[] array = new long [readLength (8)];
+		readLongs (array, 0, array.length);
+		return (array);
+	} // long[] readLongArray (void)
+
+
+	/**
+	 * Read an array of floats written by BinaryOutputFile.writeFloatArray.
+	 *
+	 * @return The array read from the file.
+	 */
+	public float[] readFloatArray ()
+	{
+		float[] array = new float [readLength (4)];
+		readFloats (array, 0, array.length);
+		return (array);
+	} // float[] readFloatArray (void)
+
+
+	/**
+	 * Read an array of doubles written by BinaryOutputFile.writeDoubleArray.
+	 *
+	 * @return The array read from the file.
+	 */
+	public double[] readDoubleArray ()
+	{
+		double[] array = new double [readLength (8)];
+		readDoubles (array, 0, array.length);
+		return (array);
+	} // double[] readDoubleArray (void)
+
+
+	/**
+	 * Read the length before a string or array, checking that the file
+	 * still holds that many elements, so a corrupt length can't make
+	 * an enormous array.
+	 *
+	 * @param elementSize - The number of bytes in each element.
+	 */
+	private int readLength (int elementSize)
+	{
+		int length = readInt ();
+		if (length < 0 || (long) length * elementSize > bytesLeft ())
+		{
+			new FatalError ("Bad length " + length + " in \"" + fileName + "\"");
+			// Never reaches here.
+		}
+		return (length);
+	} // int readLength (int)
+
+
+	/**
+	 * Return the number of bytes of the file not yet read.
+	 */
+	private long bytesLeft ()
+	{
+		try
+		{
+			return (buffer.remaining () + Math.max (0, channel.size () - channel.position ()));
+		}
+		catch (IOException e)
+		{
+			new FatalError ("Read on \"" + fileName + "\" failed: " + e);
+			// Never reaches here.
+		}
+		return (0);
+	} // long bytesLeft (void)
+
+
+	/**
+	 * Makes sure the buffer holds at least the given number of bytes,
+	 * reading more of the file if it does not. If the file ends first,
+	 * display an error message and exit.
+	 *
+	 * @return The buffer.
+	 */
+	private ByteBuffer need (int bytes)
+	{
+		if (!hasBytes (bytes))
+		{
+			new FatalError ("Attempt to read past end of file on " + fileName);
+			// Never reaches here.
+		}
+		return (buffer);
+	} // ByteBuffer need (int)
+
+
+	/**
+	 * Reads more of the file into the buffer until it holds at least the
+	 * given number of bytes or the file runs out.
+	 *
+	 * @return Whether the buffer holds that many bytes.
+	 */
+	private boolean hasBytes (int bytes)
+	{
+		if (closed)
+		{
+			new FatalError ("Read failed: \"" + fileName + "\" is already closed.");
+			// Never reaches here.
+		}
+		if (buffer.remaining () >= bytes)
+		{
+			return (true);
+		}
+		buffer.compact ();
+		try
+		{
+			while (buffer.position () < bytes && !channelEmpty)
+			{
+				channelEmpty = channel.read (buffer) == -1;
+			}
+		}
+		catch (IOException e)
+		{
+			new FatalError ("Read on \"" + fileName + "\" failed: " + e);
+			// Never reaches here.
+		}
+		buffer.flip ();
+		return (buffer.remaining () >= bytes);
+	} // boolean hasBytes (int)
+} /* BinaryInputFile class */
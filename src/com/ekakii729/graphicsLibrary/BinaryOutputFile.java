@@ -0,0 +1,489 @@
+package com.ekakii729.graphicsLibrary;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Objects;
+
+/**
+ * The BinaryOutputFile class writes numbers to a file in binary, for bulk
+ * numeric data (such as recorded star positions or frame timings) that is
+ * slow to format as text. It is read back with BinaryInputFile.
+ * <p>
+ * Values are gathered in a direct buffer and written to the file's channel
+ * when the buffer fills. The byte order is chosen when the file is opened
+ * (big-endian by default, as DataOutputStream writes). Whole arrays are
+ * put into the buffer in a single bulk copy rather than a value at a time.
+ * <p>
+ * A file can optionally start with a header, written with writeHeader,
+ * that records the byte order and a schema string describing what follows.
+ * BinaryInputFile.readHeader checks it and switches to the recorded order.
+ * <p>
+ * Strings are written as their length in bytes followed by their UTF-8
+ * bytes. writeIntArray and the other array methods write the length of the
+ * array first; writeInts and the others write just the values.
+ * <p>
+ * @author Abhay Manoj
+ * @version 3.0
+ */
+public class BinaryOutputFile
+{
+	/**
+	 * Marks the start of a header ("GLBF").
+	 */
+	static final int HEADER_MAGIC = 0x474C4246;
+	static final byte BIG_ENDIAN_FLAG = 0, LITTLE_ENDIAN_FLAG = 1;
+
+	protected static final int BUFFER_SIZE = 64 * 1024;
+
+	/**
+	 * The file name.
+	 */
+	protected String fileName;
+
+	/**
+	 * The channel written to and the buffer of values not yet written.
+	 */
+	protected FileChannel channel = null;
+	protected ByteBuffer buffer;
+
+	/**
+	 * Set if the file has been closed.
+	 */
+	protected boolean closed = false;
+
+	/**
+	 * Set once anything has been written, after which there can be no header.
+	 */
+	protected boolean written = false;
+
+
+	/**
+	 * Contructor - BinaryOutputFile to write big-endian values to the
+	 * file with the specified name.
+	 *
+	 * @param fileName - Name of the file to be opened.
+	 */
+	public BinaryOutputFile (String fileName)
+	{
+		this (fileName, ByteOrder.BIG_ENDIAN);
+	} // Constructor - BinaryOutputFile (String)
+
+
+	/**
+	 * Contructor - BinaryOutputFile to write values in the specified byte
+	 * order to the file with the specified name.
+	 *
+	 * @param fileName - Name of the file to be opened.
+	 * @param order - The byte order to write values in.
+	 */
+	public BinaryOutputFile (String fileName, ByteOrder order)
+	{
+		this.fileName = fileName;
+		try
+		{
+			channel = FileChannel.open (Paths.get (fileName), StandardOpenOption.WRITE,
+					StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING);
+		}
+		catch (IOException e)
+		{
+			new FatalError ("Unable to open file \"" + fileName + "\"");
+			// Never reaches here
+		}
+		buffer = ByteBuffer.allocateDirect (BUFFER_SIZE).order (order);
+	} // Constructor - BinaryOutputFile (String, ByteOrder)
+
+
+	/**
+	 * Return the byte order values are written in.
+	 *
+	 * @return The byte order.
+	 */
+	public ByteOrder getByteOrder ()
+	{
+		return (buffer.order ());
+	} // ByteOrder getByteOrder (void)
+
+
+	/**
+	 * Write a header recording the byte order and a description of the
+	 * data. Must be written before anything else in the file.
+	 *
+	 * @param schema - A description of what follows, for the reader to check.
+	 */
+	public void writeHeader (String schema)
+	{
+		if (written)
+		{
+			new FatalError ("The header must be the first thing written to \"" +
+					fileName + "\"");
+			// Never reaches here.
+		}
+		ByteOrder order = buffer.order ();
+		buffer.order (ByteOrder.BIG_ENDIAN);
+		writeInt (HEADER_MAGIC);
+		buffer.order (order);
+		writeByte (order == ByteOrder.BIG_ENDIAN ? BIG_ENDIAN_FLAG : LITTLE_ENDIAN_FLAG);
+		writeString (schema);
+	} // void writeHeader (String)
+
+
+	/**
+	 * Write any values still in the buffer to the file.
+	 */
+	public void flush ()
+	{
+		checkOpen ();
+		writeBuffer ();
+	} // void flush (void)
+
+
+	/**
+	 * Close the file to further writing.
+	 */
+	public void close ()
+	{
+		if (closed)
+		{
+			new FatalError ("\"" + fileName + "\" is already closed.");
+			// Never reaches here.
+		}
+		writeBuffer ();
+		try
+		{
+			channel.close ();
+		}
+		catch (IOException e)
+		{
+			new FatalError ("Close failed: Unable to close \"" + fileName + "\"");
+			// Never reaches here.
+		}
+		channel = null;
+		closed = true;
+	} // close (void)
+
+
+	/**
+	 * Write a boolean to the file as a single byte.
+	 *
+	 * @param value - The boolean to be written to the file.
+	 */
+	public void writeBoolean (boolean value)
+	{
+		writeByte ((byte) (value ? 1 : 0));
+	} // void writeBoolean (boolean)
+
+
+	/**
+	 * Write an 8-bit integer (a "byte") to the file.
+	 *
+	 * @param number - The number to be written to the file.
+	 */
+	public void writeByte (byte number)
+	{
+		room (1).put (number);
+	} // void writeByte (byte)
+
+
+	/**
+	 * Write a 16-bit character to the file.
+	 *
+	 * @param ch - The character to be written to the file.
+	 */
+	public void writeChar (char ch)
+	{
+		room (2).putChar (ch);
+	} // void writeChar (char)
+
+
+	/**
+	 * Write a 16-bit integer (a "short") to the file.
+	 *
+	 * @param number - The number to be written to the file.
+	 */
+	public void writeShort (short number)
+	{
+		room (2).putShort (number);
+	} // void writeShort (short)
+
+
+	/**
+	 * Write a 32-bit integer (an "int") to the file.
+	 *
+	 * @param number - The number to be written to the file.
+	 */
+	public void writeInt (int number)
+	{
+		room (4).putInt (number);
+	} // void writeInt (int)
+
+
+	/**
+	 * Write a 64-bit integer (a "long") to the file.
+	 *
+	 * @param number - The number to be written to the file.
+	 */
+	public void writeLong (long number)
+	{
+		room (8).putLong (number);
+	} // void writeLong (long)
+
+
+	/**
+	 * Write a floating point number (a "float") to the file.
+	 *
+	 * @param number - The number to be written to the file.
+	 */
+	public void writeFloat (float number)
+	{
+		room (4).putFloat (number);
+	} // void writeFloat (float)
+
+
+	/**
+	 * Write a double precision floating point number (a "double") to the file.
+	 *
+	 * @param number - The number to be written to the file.
+	 */
+	public void writeDouble (double number)
+	{
+		room (8).putDouble (number);
+	} // void writeDouble (double)
+
+
+	/**
+	 * Write a string to the file as its length in bytes and its UTF-8 bytes.
+	 *
+	 * @param text - The string to be written to the file.
+	 */
+	public void writeString (String text)
+	{
+		byte[] bytes = text.getBytes (StandardCharsets.UTF_8);
+		writeInt (bytes.length);
+		writeBytes (bytes, 0, bytes.length);
+	} // void writeString (String)
+
+
+	/**
+	 * Write len bytes from an array to the file.
+	 *
+	 * @param src - The array to write from.
+	 * @param off - Where in the array the first byte is.
+	 * @param len - The number of bytes to write.
+	 */
+	public void writeBytes (byte[] src, int off, int len)
+	{
+		Objects.checkFromIndexSize (off, len, src.length);
+		if (len > BUFFER_SIZE)
+		{
+			// Too big to be worth copying into the buffer
+			room (0);
+			writeBuffer ();
+			write (ByteBuffer.wrap (src, off, len));
+			return;
+		}
+		room (len).put (src, off, len);
+	} // void writeBytes (byte[], int, int)
+
+
+	/**
+	 * Write len ints from an array to the file.
+	 *
+	 * @param src - The array to write from.
+	 * @param off - Where in the array the first number is.
+	 * @param len - The number of numbers to write.
+	 */
+	public void writeInts (int[] src, int off, int len)
+	{
+		Objects.checkFromIndexSize (off, len, src.length);
+		while (len > 0)
+		{
+			int count = Math.min (len, room (4).remaining () / 4);
+			buffer.asIntBuffer ().put (src, off, count);
+			buffer.position (buffer.position () + count * 4);
+			off += count;
+			len -= count;
+		}
+	} // void writeInts (int[], int, int)
+
+
+	/**
+	 * Write len longs from an array to the file.
+	 *
+	 * @param src - The array to write from.
+	 * @param off - Where in the array the first number is.
+	 * @param len - The number of numbers to write.
+	 */
+	public void writeLongs (long[] src, int off, int len)
+	{
+		Objects.checkFromIndexSize (off, len, src.length);
+		while (len > 0)
+		{
+			int count = Math.min (len, room (8).remaining () / 8);
+			buffer.asLongBuffer ().put (src, off, count);
+			buffer.position (buffer.position () + count * 8);
+			off += count;
+			len -= count;
+		}
+	} // void writeLongs (long[], int, int)
+
+
+	/**
+	 * Write len floats from an array to the file.
+	 *
+	 * @param src - The array to write from.
+	 * @param off - Where in the array the first number is.
+	 * @param len - The number of numbers to write.
+	 */
+	public void writeFloats (float[] src, int off, int len)
+	{
+		Objects.checkFromIndexSize (off, len, src.length);
+		while (len > 0)
+		{
+			int count = Math.min (len, room (4).remaining () / 4);
+			buffer.asFloatBuffer ().put (src, off, count);
+			buffer.position (buffer.position () + count * 4);
+			off += count;
+			len -= count;
+		}
+	} // void writeFloats (float[], int, int)
+
+
+	/**
+	 * Write len doubles from an array to the file.
+	 *
+	 * @param src - The array to write from.
+	 * @param off - Where in the array the first number is.
+	 * @param len - The number of numbers to write.
+	 */
+	public void writeDoubles (double[] src, int off, int len)
+	{
+		Objects.checkFromIndexSize (off, len, src.length);
+		while (len > 0)
+		{
+			int count = Math.min (len, room (8).remaining () / 8);
+			buffer.asDoubleBuffer ().put (src, off, count);
+			buffer.position (buffer.position () + count * 8);
+			off += count;
+			len -= count;
+		}
+	} // void writeDoubles (double[], int, int)
+
+
+	/**
+	 * Write an array of bytes to the file, preceded by its length.
+	 *
+	 * @param array - The array to be written to the file.
+	 */
+	public void writeByteArray (byte[] array)
+	{
+		writeInt (array.length);
+		writeBytes (array, 0, array.length);
+	} // void writeByteArray (byte[])
+
+
+	/**
+	 * Write an array of ints to the file, preceded by its length.
+	 *
+	 * @param array - The array to be written to the file.
+	 */
+	public void writeIntArray (int[] array)
+	{
+		writeInt (array.length);
+		writeInts (array, 0, array.length);
+	} // void writeIntArray (int[])
+
+
+	/**
+	 * Write an array of longs to the file, preceded by its length.
+	 *
+	 * @param array - The array to be written to the file.
+	 */
+	public void writeLongArray (long[] array)
+	{
+		writeInt (array.length);
+		writeLongs (array, 0, array.length);
+	} // void writeLongArray (long[])
+
+
+	/**
+	 * Write an array of floats to the file, preceded by its length.
+	 *
+	 * @param array - The array to be written to the file.
+	 */
+	public void writeFloatArray (float[] array)
+	{
+		writeInt (array.length);
+		writeFloats (array, 0, array.length);
+	} // void writeFloatArray (float[])
+
+
+	/**
+	 * Write an array of doubles to the file, preceded by its length.
+	 *
+	 * @param array - The array to be written to the file.
+	 */
+	public void writeDoubleArray (double[] array)
+	{
+		writeInt (array.length);
+		writeDoubles (array, 0, array.length);
+	} // void writeDoubleArray (double[])
+
+
+	/**
+	 * Makes sure there is room in the buffer for the given number of bytes,
+	 * writing it to the file if there is not.
+	 *
+	 * @return The buffer.
+	 */
+	private ByteBuffer room (int bytes)
+	{
+		checkOpen ();
+		written = true;
+		if (buffer.remaining () < bytes)
+		{
+			writeBuffer ();
+		}
+		return (buffer);
+	} // ByteBuffer room (int)
+
+
+	private void writeBuffer ()
+	{
+		buffer.flip ();
+		write (buffer);
+		buffer.clear ();
+	} // void writeBuffer (void)
+
+
+	private void write (ByteBuffer bytes)
+	{
+		try
+		{
+			while (bytes.hasRemaining ())
+			{
+				channel.write (bytes);
+			}
+		}
+		catch (IOException e)
+		{
+			new FatalError ("Write on \"" + fileName + "\" failed: " + e);
+			// Never reaches here.
+		}
+	} // void write (ByteBuffer)
+
+
+	private void checkOpen ()
+	{
+		if (closed)
+		{
+			new FatalError ("Write failed: \"" + fileName + "\" is already closed.");
+			// Never reaches here.
+		}
+	} // void checkOpen (void)
+
+} /* BinaryOutputFile class */
@@ -0,0 +1,180 @@
+package com.ekakii729.graphicsLibrary;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CodingErrorAction;
+import java.util.Objects;
+
+/**
+ * Writes text to a channel for TextOutputFile. Characters are copied into
+ * a char array, turning each '\n' into the line separator as they go, then
+ * encoded by one CharsetEncoder into a large direct buffer, which is
+ * written to the channel when it fills. Nothing is allocated while writing.
+ * <p>
+ * Characters that can't be encoded are replaced, as FileWriter does. A
+ * surrogate pair split between two writes is kept until its second half
+ * arrives.
+ * <p>
+ * It is also an ordinary Writer (without newline conversion), so that
+ * TextOutputFile's PrintWriter can write into the same buffer.
+ * <p>
+ * @author Abhay Manoj
+ * @version 3.0
+ */
+class ChannelWriter extends Writer {
+
+	private static final int CHAR_BUFFER_SIZE = 8 * 1024;
+	private static final int BYTE_BUFFER_SIZE = 64 * 1024;
+
+	private final WritableByteChannel channel;
+	/** The stream under the channel, if any, flushed by flush (a gzip stream must be). **/
+	private final OutputStream stream;
+	private final CharsetEncoder encoder;
+	private final char[] chars = new char [CHAR_BUFFER_SIZE];
+	private final CharBuffer charBuffer = CharBuffer.wrap(chars);
+	private final ByteBuffer bytes = ByteBuffer.allocateDirect(BYTE_BUFFER_SIZE);
+	/** Characters waiting in chars to be encoded. **/
+	private int charCount = 0;
+	private boolean closed = false;
+
+	ChannelWriter(WritableByteChannel channel, Charset charset) {
+		this(channel, null, charset);
+	}
+
+	/**
+	 * Writes to a stream, which is flushed along with this writer.
+	 */
+	ChannelWriter(OutputStream stream, Charset charset) {
+		this(Channels.newChannel(stream), stream, charset);
+	}
+
+	private ChannelWriter(WritableByteChannel channel, OutputStream stream, Charset charset) {
+		this.channel = channel;
+		this.stream = stream;
+		encoder = charset.newEncoder().onMalformedInput(CodingErrorAction.REPLACE)
+				.onUnmappableCharacter(CodingErrorAction.REPLACE);
+	}
+
+	/**
+	 * Writes text, with each '\n' written as lineSeparator.
+	 */
+	void write(String text, String lineSeparator) throws IOException {
+		checkOpen();
+		int length = text.length();
+		if (lineSeparator.equals("\n")) {
+			appendChars(text, 0, length);
+			return;
+		}
+		int start = 0;
+		while (start < length) {
+			int newLine = text.indexOf('\n', start);
+			if (newLine == -1) {
+				appendChars(text, start, length);
+				return;
+			}
+			appendChars(text, start, newLine);
+			appendChars(lineSeparator, 0, lineSeparator.length());
+			start = newLine + 1;
+		}
+	}
+
+	public void write(char[] cbuf, int off, int len) throws IOException {
+		Objects.checkFromIndexSize(off, len, cbuf.length);
+		checkOpen();
+		while (len > 0) {
+			if (charCount == chars.length)
+				encodeChars(false);
+			int count = Math.min(len, chars.length - charCount);
+			System.arraycopy(cbuf, off, chars, charCount, count);
+			charCount += count;
+			off += count;
+			len -= count;
+		}
+	}
+
+	public void write(String str, int off, int len) throws IOException {
+		Objects.checkFromIndexSize(off, len, str.length());
+		checkOpen();
+		appendChars(str, off, off + len);
+	}
+
+	public void write(int c) throws IOException {
+		checkOpen();
+		if (charCount == chars.length)
+			encodeChars(false);
+		chars [charCount++] = (char) c;
+	}
+
+	/**
+	 * Writes everything so far to the channel (and through the stream under
+	 * it, so a compressed file holds the bytes for everything written so far).
+	 */
+	public void flush() throws IOException {
+		checkOpen();
+		encodeChars(false);
+		writeBytes();
+		if (stream != null)
+			stream.flush();
+	}
+
+	/**
+	 * Writes everything so far and closes the channel.
+	 */
+	public void close() throws IOException {
+		if (closed)
+			return;
+		closed = true;
+		try {
+			encodeChars(true);
+			while (encoder.flush(bytes).isOverflow())
+				writeBytes();
+			writeBytes();
+		} finally {
+			channel.close();
+		}
+	}
+
+	private void checkOpen() throws IOException {
+		if (closed)
+			throw new IOException("Writer closed");
+	}
+
+	private void appendChars(String text, int start, int end) throws IOException {
+		while (start < end) {
+			if (charCount == chars.length)
+				encodeChars(false);
+			int count = Math.min(end - start, chars.length - charCount);
+			text.getChars(start, start + count, chars, charCount);
+			charCount += count;
+			start += count;
+		}
+	}
+
+	/**
+	 * Encodes the waiting characters into the byte buffer, writing it to
+	 * the channel whenever it fills.
+	 */
+	private void encodeChars(boolean endOfInput) throws IOException {
+		charBuffer.limit(charCount).position(0);
+		while (encoder.encode(charBuffer, bytes, endOfInput).isOverflow())
+			writeBytes();
+		// Anything left is the first half of a surrogate pair
+		int left = charBuffer.remaining();
+		System.arraycopy(chars, charBuffer.position(), chars, 0, left);
+		charCount = left;
+	}
+
+	private void writeBytes() throws IOException {
+		bytes.flip();
+		while (bytes.hasRemaining())
+			channel.write(bytes);
+		bytes.clear();
+	}
+}
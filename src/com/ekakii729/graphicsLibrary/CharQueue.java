@@ -0,0 +1,140 @@
+package com.ekakii729.graphicsLibrary;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * The keyboard buffer. A lock-free queue of characters with exactly one
+ * writer (the event dispatch thread, from keyPressed) and one reader (the
+ * program's thread, through getChar/readChar).
+ * <p>
+ * Typed characters go into a fixed size ring. Anything that does not fit,
+ * such as a large clipboard paste, goes into an unbounded overflow list of
+ * chunks instead of being rejected. To keep characters in order, once the
+ * overflow holds anything the writer keeps adding to it until the reader
+ * has taken every chunk, and the reader finishes its current chunk before
+ * going back to the ring.
+ * <p>
+ * A reader with nothing to read parks its thread; the writer unparks it
+ * after adding characters. The writer publishes with a full volatile write
+ * (not lazySet) so that it cannot miss a reader that has just parked.
+ * <p>
+ * @author Abhay Manoj
+ * @version 3.0
+ */
+class CharQueue {
+
+	static final int EMPTY = -1;
+
+	private final char[] ring;
+	private final int mask;
+	/** Number of characters ever put in the ring. Only changed by the writer. **/
+	private final AtomicLong head = new AtomicLong();
+	/** Number of characters ever taken from the ring. Only changed by the reader. **/
+	private final AtomicLong tail = new AtomicLong();
+	/** Characters that did not fit in the ring, in order. **/
+	private final ConcurrentLinkedQueue<char[]> overflow = new ConcurrentLinkedQueue<char[]>();
+	/** Overflow chunk being read. Only touched by the reader. **/
+	private char[] chunk = null;
+	private int chunkPos = 0;
+	/** Reader thread parked in take(), or null. **/
+	private volatile Thread waiter = null;
+
+	/**
+	 * @param capacity Size of the ring, rounded up to a power of two
+	 */
+	CharQueue(int capacity) {
+		int size = Integer.highestOneBit(Math.max(1, capacity - 1)) << 1;
+		ring = new char [size];
+		mask = size - 1;
+	}
+
+	/**
+	 * Adds a character. Only called by the writer.
+	 */
+	void put(char ch) {
+		if (!overflow.isEmpty() || !putInRing(ch))
+			overflow.add(new char[] { ch });
+		wakeReader();
+	}
+
+	/**
+	 * Adds a block of characters, such as a paste. Only called by the writer.
+	 */
+	void putAll(char[] chars, int count) {
+		if (count == 0)
+			return;
+		long h = head.get();
+		if (overflow.isEmpty() && ring.length - (h - tail.get()) >= count) {
+			for (int i = 0; i < count; i++)
+				ring [(int) (h + i) & mask] = chars [i];
+			head.set(h + count);
+		} else {
+			char[] copy = new char [count];
+			System.arraycopy(chars, 0, copy, 0, count);
+			overflow.add(copy);
+		}
+		wakeReader();
+	}
+
+	/**
+	 * Takes the next character if there is one. Only called by the reader.
+	 * @return The character, or EMPTY if there is none
+	 */
+	int poll() {
+		if (chunk != null) {
+			char ch = chunk [chunkPos++];
+			if (chunkPos == chunk.length)
+				chunk = null;
+			return ch;
+		}
+		long t = tail.get();
+		if (t != head.get()) {
+			char ch = ring [(int) t & mask];
+			tail.lazySet(t + 1);
+			return ch;
+		}
+		char[] next = overflow.poll();
+		if (next == null)
+			return EMPTY;
+		chunk = next;
+		chunkPos = 0;
+		return poll();
+	}
+
+	/**
+	 * Takes the next character, parking until one is typed if necessary.
+	 * Interrupts are ignored, as the old wait() loop did. Only called by the reader.
+	 */
+	char take() {
+		int ch;
+		while ((ch = poll()) == EMPTY) {
+			waiter = Thread.currentThread();
+			// Check again now that the writer can see us, in case it missed us
+			if ((ch = poll()) != EMPTY) {
+				waiter = null;
+				break;
+			}
+			LockSupport.park(this);
+			waiter = null;
+			Thread.interrupted();
+		}
+		return (char) ch;
+	}
+
+	private boolean putInRing(char ch) {
+		long h = head.get();
+		if (h - tail.get() == ring.length)
+			return false;
+		ring [(int) h & mask] = ch;
+		head.set(h + 1);
+		return true;
+	}
+
+	private void wakeReader() {
+		Thread w = waiter;
+		if (w != null)
+			LockSupport.unpark(w);
+	}
+}
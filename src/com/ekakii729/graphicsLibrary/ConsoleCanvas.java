@@ -17,9 +17,12 @@ import java.awt.event.ActionListener;
 import java.awt.event.KeyEvent;
 import java.awt.event.KeyListener;
 import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.util.Arrays;
 //import java.awt.image.ImageObserver;
 
 import javax.swing.JPanel;
+import javax.swing.SwingUtilities;
 import javax.swing.Timer;
 
 /**
@@ -49,11 +52,20 @@ public class ConsoleCanvas extends JPanel implements ActionListener, KeyListener
 	private String title;
 	/** Container of this object **/
 	private GraphicsConsole container;
+	/** The container, or this canvas when drawing off screen; guards the buffer and text **/
+	private final Object lock;
 
 	// ***** Screen variables *****
 	
 	/** Off screen buffer **/
 	private final BufferedImage buffer;
+	/**
+	 * One text row of pixels, written directly by the glyph blits and then
+	 * drawn into the buffer. Taking the pixels of the buffer itself would
+	 * stop Java2D from caching it in video memory, making every repaint slower.
+	 */
+	private final BufferedImage textStrip;
+	private final int[] stripPixels;
 	/** Foreground color **/
 	private Color foregroundColor = Color.black;
 	/** Background color **/
@@ -66,6 +78,8 @@ public class ConsoleCanvas extends JPanel implements ActionListener, KeyListener
 	private Color xorColor = backgroundColor;
 	/** Font for drawString **/
 	private Font drawStringFont;
+	/** Prerendered strings for drawString, up to 8 MB of images **/
+	private final TextSpriteCache textSprites = new TextSpriteCache(8L << 20);
 	/** Refresh speed **/
 	private static final int framesPerSecond = 60;
 	/** Timer object for redrawing screen **/
@@ -77,6 +91,7 @@ public class ConsoleCanvas extends JPanel implements ActionListener, KeyListener
 	// ***** Text input/output variables *****
 	private Font textFont;
 	private int fontHeight, fontBase, fontWidth;
+	private GlyphAtlas glyphs;
 	private int cursorRow = 0, cursorCol = 0;
 	private boolean cursorFlashing = false;
 	private int flashSpeed = 20; // speed is in frames (see framesPerSecond above)
@@ -91,26 +106,48 @@ public class ConsoleCanvas extends JPanel implements ActionListener, KeyListener
 	private int maxRow = 0, maxCol = 0;
 	private final static int TAB_SIZE = 8;
 
+	// ***** Text cell grid *****
+	// print() only writes characters and colours into these cells and marks the
+	// changed span of each row dirty. flushText() draws the dirty spans into the
+	// off screen buffer in one go, on the next screen refresh or before the next
+	// graphics call (so text and graphics still appear in the order drawn).
+	// The rows form a ring: the screen shows numRows rows starting at topLine and
+	// the rows before it are scrollback history, so scrolling a line only moves
+	// topLine. The pixels are moved once per flush, however many lines scrolled.
+	// Guarded by the lock.
+	private static final int SCROLLBACK_LINES = 500;
+	private int numCols, numRows, ringRows;
+	private char[] cellChars;
+	private Color[] cellForeground, cellBackground;
+	private int[] dirtyFrom, dirtyTo;     // dirty span of each ring row, clean if from > to
+	private volatile boolean textDirty = false;
+	private int topLine = 0;              // ring row shown at the top of the screen
+	private int historyLines = 0;         // rows of scrollback before topLine
+	private int pendingScroll = 0;        // lines scrolled since the last flush
+	private volatile int scrollBackOffset = 0;  // rows of history being viewed, 0 is live
+
 	// ***** Keyboard Buffer & Input Variables - adapted from original hsa package *****
 	private static final int BUFFER_SIZE = 2048;
 	private static final int EMPTY_BUFFER = -1;
-	private char[] kbdBuffer = new char [BUFFER_SIZE];
-	private int kbdBufferHead = 0, kbdBufferTail = 0;
+	private final CharQueue kbdBuffer = new CharQueue (BUFFER_SIZE);
 	private char[] lineBuffer = new char [BUFFER_SIZE];
 	private int lineBufferHead = 0, lineBufferTail = 0;
 	protected int ungotChar = EMPTY_BUFFER;
+	/** The last token read by readToken() **/
+	char[] tokenChars = new char [64];
 	private boolean echoOn = true;
 	//private boolean clearToEOL = true;
 	
 	// New Keyboard variables
+	// (volatile so the getters can be read from the program's thread without locking)
 	/** Code for key currently held down **/
-	private int currentKeyCode = GraphicsConsole.VK_UNDEFINED;
+	private volatile int currentKeyCode = GraphicsConsole.VK_UNDEFINED;
 	/** Code for last key pressed **/
-	private int lastKeyCode = currentKeyCode;
+	private volatile int lastKeyCode = currentKeyCode;
 	/** Character currently held down **/
-	private char currentKeyChar = (char) GraphicsConsole.VK_UNDEFINED;
+	private volatile char currentKeyChar = (char) GraphicsConsole.VK_UNDEFINED;
 	/** Last character pressed **/
-	private char lastKeyChar = currentKeyChar;
+	private volatile char lastKeyChar = currentKeyChar;
 	/** Size of keysDown array **/
 	private final int numKeyCodes = 256;
 	/** Array of booleans representing characters currently held down **/
@@ -123,33 +160,57 @@ public class ConsoleCanvas extends JPanel implements ActionListener, KeyListener
 	public ConsoleCanvas(int width, int height, int fontSize, String title, GraphicsConsole console)
 	{
 		this.container = console;
+		this.lock = console != null ? console : this;
 		this.title = title;
 
 		// Sizing
 		this.setPreferredSize(new Dimension(width, height));
 		this.setMinimumSize(new Dimension(width, height));
 		this.setMaximumSize(new Dimension(width, height));
-		buffer = new BufferedImage(width, height, BufferedImage.TYPE_4BYTE_ABGR);
+		buffer = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
 		this.height = height;
 		this.width = width;
 		// Adapted from old hsa code
 		textFont = new Font("monospaced", Font.PLAIN, fontSize);
 		FontMetrics fm = getFontMetrics(textFont);
 		fontHeight = fm.getHeight() + fm.getLeading();
+		textStrip = new BufferedImage(width, fontHeight, BufferedImage.TYPE_INT_ARGB);
+		stripPixels = ((DataBufferInt) textStrip.getRaster().getDataBuffer()).getData();
 		fontBase = fm.getDescent();
 		fontWidth = 0;
 		for (int ch = 32; ch < 127; ch++) {
 			fontWidth = Math.max(fontWidth, fm.charWidth(ch));
 		}
 
+		glyphs = new GlyphAtlas(textFont, fontWidth, fontHeight, fontBase);
+
 		// set the number of rows and columns
 		maxCol = (width - 2*MARGIN) / fontWidth - 1;
 		maxRow = (height - 2*MARGIN) / fontHeight - 1;
 
+		numCols = maxCol + 1;
+		numRows = maxRow + 1;
+		ringRows = numRows + SCROLLBACK_LINES;
+		cellChars = new char [numCols * ringRows];
+		cellForeground = new Color [numCols * ringRows];
+		cellBackground = new Color [numCols * ringRows];
+		dirtyFrom = new int [ringRows];
+		dirtyTo = new int [ringRows];
+		Arrays.fill (cellChars, ' ');
+
 		clear();
 		//new Thread(this).start();
 		timer = new Timer(1000/framesPerSecond, this);
-		timer.start();
+		if (console != null)
+			timer.start();
+	}
+	/**
+	 * Creates a canvas that is only drawn off screen, with no window, as
+	 * OffscreenConsole uses. Works when there is no display.
+	 */
+	ConsoleCanvas(int width, int height, int fontSize)
+	{
+		this(width, height, fontSize, null, null);
 	}
 
 	// ************
@@ -157,6 +218,7 @@ public class ConsoleCanvas extends JPanel implements ActionListener, KeyListener
 	// ************
 	void clear()
 	{
+		clearText();
 		Graphics g = getOffscreenGraphics();
 		g.setColor(backgroundColor);
 		if(xorMode)
@@ -255,6 +317,20 @@ public class ConsoleCanvas extends JPanel implements ActionListener, KeyListener
 		g2.setStroke(new BasicStroke (strokeSize,BasicStroke.CAP_ROUND, BasicStroke.JOIN_ROUND));
 		g2.drawLine(x1, y1, x2, y2);
 	}
+	void drawLines(int[] x1, int[] y1, int[] x2, int[] y2, int n)
+	{
+		Graphics g = getOffscreenGraphics();
+		Graphics2D g2 = (Graphics2D) g;
+		if (antiAlias) {
+			g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+		}
+		g.setColor(foregroundColor);
+		g2.setStroke(new BasicStroke (strokeSize,BasicStroke.CAP_ROUND, BasicStroke.JOIN_ROUND));
+		// Line by line on purpose: stroking the batch as one Path2D was no
+		// faster plain and twice as slow antialiased
+		for (int i = 0; i < n; i++)
+			g2.drawLine(x1[i], y1[i], x2[i], y2[i]);
+	}
 	void drawPolygon(Polygon p){
 		Graphics g = getOffscreenGraphics();
 		Graphics2D g2 = (Graphics2D) g;
@@ -348,14 +424,27 @@ public class ConsoleCanvas extends JPanel implements ActionListener, KeyListener
 	void drawString(String str, int x, int y) {
 		Graphics g = getOffscreenGraphics();
 		Graphics2D g2 = (Graphics2D) g;
+		if (drawStringFont != null)
+			g2.setFont(drawStringFont);
+		// Blit the string from the cache if it has been drawn before. XOR mode
+		// would also flip the transparent part of the image, so it is drawn directly.
+		if (!xorMode) {
+			TextSpriteCache.Sprite sprite = textSprites.get(str, g2.getFont(), foregroundColor, antiAlias);
+			if (sprite != null) {
+				if (sprite.image != null)
+					g2.drawImage(sprite.image, x + sprite.dx, y + sprite.dy, null);
+				return;
+			}
+		}
 		if (antiAlias) {
 			g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
 		}
 		g.setColor(foregroundColor);
-		if (drawStringFont != null)
-			g2.setFont(drawStringFont);
 		g2.drawString(str, x, y);
 	}
+	double getTextCacheHitRate() {
+		return textSprites.getHitRate();
+	}
 	
 	public void setFont(Font f) {
 		super.setFont(f);
@@ -435,6 +524,29 @@ public class ConsoleCanvas extends JPanel implements ActionListener, KeyListener
 	{
 		return maxRow+1;
 	}
+	/**
+	 * Shows the screen the given number of rows back in the scrollback history,
+	 * or the live screen for 0. Clamped to the history that is kept.
+	 */
+	public void setScrollBack(int rows)
+	{
+		synchronized(lock)
+		{
+			scrollBackOffset = Math.max (0, Math.min (rows, historyLines));
+		}
+		repaint ();
+	}
+	public int getScrollBack()
+	{
+		return scrollBackOffset;
+	}
+	public int getScrollBackLength()
+	{
+		synchronized(lock)
+		{
+			return historyLines;
+		}
+	}
 	/**
 	 * Sets the cursor to the specified row and column.Adapted from hsa.
 	 */
@@ -448,12 +560,13 @@ public class ConsoleCanvas extends JPanel implements ActionListener, KeyListener
 			cursorOn();
 	}
 	/**
-	 * Write a string to the Console. Adapted from hsa.
+	 * Write a string to the Console. Adapted from hsa. Takes any CharSequence
+	 * so that numbers can be printed straight from GraphicsConsole's formatter.
 	 *
 	 * @param text
 	 *            The string to be written to the Console
 	 */
-	public void print (String text)
+	public void print (CharSequence text)
 	{
 		// Convert the printing of null to a printable string.
 		if (text == null)
@@ -483,7 +596,7 @@ public class ConsoleCanvas extends JPanel implements ActionListener, KeyListener
 			if (start != index)
 			{
 				// Draw what we have so far
-				drawText (currentRow, currentCol, text.substring (start, index));
+				drawText (currentRow, currentCol, text, start, index);
 				currentCol += index - start;
 				actualCol = currentCol;
 			}
@@ -532,7 +645,7 @@ public class ConsoleCanvas extends JPanel implements ActionListener, KeyListener
 			{
 				if (currentCol <= maxCol)
 				{
-					drawText (currentRow, currentCol, text.substring (index, index + 1));
+					drawText (currentRow, currentCol, text, index, index + 1);
 					if (currentCol < maxCol)
 					{
 						currentCol++;
@@ -564,7 +677,7 @@ public class ConsoleCanvas extends JPanel implements ActionListener, KeyListener
 						scrollUpALine ();
 						startRow--;
 					}
-					drawText (currentRow, 1, text.substring (index, index + 1));
+					drawText (currentRow, 1, text, index, index + 1);
 					currentCol = 0;
 					actualCol = currentCol;
 					actualRow = currentRow;
@@ -584,34 +697,22 @@ public class ConsoleCanvas extends JPanel implements ActionListener, KeyListener
 	 *
 	 * @return The next character entered on the keyboard.
 	 */
-	public synchronized char getChar (boolean cursor)
+	public char getChar (boolean cursor)
 	{
-		while (kbdBufferHead == kbdBufferTail)
+		int ch = kbdBuffer.poll ();
+		if (ch == CharQueue.EMPTY)
 		{
-			try
-			{
-				container.setTitle (title + " - Waiting for input");
-				if (cursor)
-					cursorOn();
-				else
-					cursorOff();
-				synchronized (this)
-				{
-					wait ();
-				}
-				if (cursor)
-					cursorOff();
-				container.setTitle (title + " - Running");
-			}
-			catch (InterruptedException e)
-			{
-			}
+			setTitleLater (title + " - Waiting for input");
+			if (cursor)
+				cursorOn();
+			else
+				cursorOff();
+			ch = kbdBuffer.take ();
+			if (cursor)
+				cursorOff();
+			setTitleLater (title + " - Running");
 		}
-
-		char ch = kbdBuffer [kbdBufferTail];
-		kbdBufferTail = (kbdBufferTail + 1) % kbdBuffer.length;
-
-		return ch;
+		return (char) ch;
 	}
 
 	/**
@@ -621,7 +722,7 @@ public class ConsoleCanvas extends JPanel implements ActionListener, KeyListener
 	 *
 	 * @return The character read from the Console
 	 */
-	public synchronized char readChar ()
+	public char readChar ()
 	{
 		char result, ch;
 
@@ -725,31 +826,98 @@ public class ConsoleCanvas extends JPanel implements ActionListener, KeyListener
 
 		return (result);
 	}
+	/**
+	 * Reads a token (a word, or a string in double quotes) into tokenChars
+	 * without making a String, so numbers can be parsed straight from it.
+	 * Works through the line already in the line buffer directly, only
+	 * calling readChar() when a new line has to be typed.
+	 *
+	 * @return The length of the token
+	 */
+	int readToken ()
+	{
+		char ch;
+		int length = 0;
+
+		// Skip white space
+		do
+			ch = readChar ();
+		while ((ch == ' ') || (ch == '\n') || (ch == '\t'));
+
+		if (ch == '"')
+		{
+			// Read until close quote
+			ch = readChar ();
+			while (ch != '"')
+			{
+				length = addTokenChar (length, ch);
+				ch = readChar ();
+				if (ch == '\n')
+				{
+					new FatalError ("No terminating quote for quoted string");
+					// Never reaches here.
+				}
+			}
+
+			// Read the character following the close quote.
+			ch = readChar ();
+		}
+		else
+		{
+			do
+			{
+				length = addTokenChar (length, ch);
+				if (ungotChar == EMPTY_BUFFER && lineBufferHead != lineBufferTail)
+				{
+					ch = lineBuffer [lineBufferTail];
+					lineBufferTail = (lineBufferTail + 1) % lineBuffer.length;
+				}
+				else
+					ch = readChar ();
+			} while ((ch != ' ') && (ch != '\n') && (ch != '\t'));
+		}
+
+		// Lastly, skip any whitespace until the end of line
+		while ((ch == ' ') || (ch == '\t'))
+			ch = readChar ();
+
+		if (ch != '\n')
+			ungotChar = (int) ch;
+
+		return length;
+	}
+	private int addTokenChar (int length, char ch)
+	{
+		if (length == tokenChars.length)
+			tokenChars = Arrays.copyOf (tokenChars, length * 2);
+		tokenChars [length] = ch;
+		return length + 1;
+	}
 	/**
 	 * Returns the code for the key currently held down.
 	 **/
-	public synchronized int getKeyCode ()
+	public int getKeyCode ()
 	{
 		return currentKeyCode;
 	}
 	/**
 	 * Returns the char for the key currently held down.
 	 **/
-	public synchronized char getKeyChar ()
+	public char getKeyChar ()
 	{
 		return currentKeyChar;
 	}
 	/**
 	 *Returns the code for the last key pressed.
 	 **/
-	public synchronized int getLastKeyCode ()
+	public int getLastKeyCode ()
 	{
 		return lastKeyCode;
 	}
 	/**
 	 * Returns the char for the last key pressed.
 	 **/
-	public synchronized char getLastKeyChar ()
+	public char getLastKeyChar ()
 	{
 		return lastKeyChar;
 	}
@@ -778,12 +946,11 @@ public class ConsoleCanvas extends JPanel implements ActionListener, KeyListener
 	// **********************
 
 	/**
-	 * Places a keystroke in the keyboard buffer. It is synchronized so that
-	 * there can't be a problem with input being taken off the keyboard buffer
-	 * and placed on the keyboard buffer at the same time. Adapted from hsa.
+	 * Places a keystroke in the keyboard buffer. The buffer is a lock-free
+	 * queue, so this never waits on the program reading from it. Adapted from hsa.
 	 * Modified by Sam to record the current key held down.
 	 */
-	public synchronized void keyPressed (KeyEvent e)
+	public void keyPressed (KeyEvent e)
 	{
 		// This is a workaround for a bug where the canvas isn't given
 		// focus back!  The frame appears to have it, however.
@@ -796,26 +963,34 @@ public class ConsoleCanvas extends JPanel implements ActionListener, KeyListener
 		currentKeyChar = e.getKeyChar ();
 		lastKeyCode = currentKeyCode;
 		lastKeyChar = currentKeyChar;
+		container.postEvent (ConsoleEvent.key (ConsoleEvent.KEY_PRESSED, e.getKeyCode (), e.getKeyChar ()));
 
 		if ((currentKeyCode >= 0) & (currentKeyCode < numKeyCodes))
 			keysDown [currentKeyCode] = true;
 
+		// Shift+Page Up/Down pages through the scrollback history.
+		if (e.isShiftDown () && (currentKeyCode == KeyEvent.VK_PAGE_UP
+				|| currentKeyCode == KeyEvent.VK_PAGE_DOWN))
+		{
+			int page = Math.max (1, numRows - 1);
+			setScrollBack (scrollBackOffset
+					+ (currentKeyCode == KeyEvent.VK_PAGE_UP ? page : -page));
+			e.consume ();
+			return;
+		}
+
 		char ch = e.getKeyChar ();
 		// Handle standard keystrokes including backspace, newline and
 		// Ctrl+U to delete a line of input.
 		if (((' ' <= ch) && (ch <= '~')) || (ch == '\b') ||
 				(ch == '\t') || (ch == '\n') || (ch == '\025'))
 		{
-			// Place the keystroke into the keyboard buffer.
-			kbdBuffer [kbdBufferHead] = e.getKeyChar ();
-			kbdBufferHead = (kbdBufferHead + 1) % kbdBuffer.length;
-
-			// The following statements wakes up any processes that are
-			// sleeping while waiting for keyboard input.
-			synchronized (this)
-			{
-				notify ();
-			}
+			// Typing goes back to the live screen, as in a terminal
+			if (scrollBackOffset > 0)
+				setScrollBack (0);
+			// Place the keystroke into the keyboard buffer. This also wakes
+			// up the program if it is waiting for keyboard input.
+			kbdBuffer.put (e.getKeyChar ());
 		}
 
 		// Handle Ctrl+V to paste.
@@ -827,31 +1002,20 @@ public class ConsoleCanvas extends JPanel implements ActionListener, KeyListener
 			try
 			{
 				String s = (String) (clipData.getTransferData (DataFlavor.stringFlavor));
-				int bufferUsed = (kbdBufferHead - kbdBufferTail + kbdBuffer.length) % kbdBuffer.length;
-				if (s.length () > kbdBuffer.length - bufferUsed)
-				{
-					// Current keyboard buffer isn't big enough.
-					invertScreen ();
-				}
-				else
+				char[] pasted = new char [s.length ()];
+				int count = 0;
+				for (int cnt = 0 ; cnt < s.length () ; cnt++)
 				{
-					for (int cnt = 0 ; cnt < s.length () ; cnt++)
-					{
-						// Place the keystroke into the keyboard buffer.
-						ch = s.charAt (cnt);
+					ch = s.charAt (cnt);
 
-						// Some systems seem to mix up CR and LF.
-						if (((' ' <= ch) && (ch <= '~')) || (ch == '\n'))
-						{
-							kbdBuffer [kbdBufferHead] = ch;
-							kbdBufferHead = (kbdBufferHead + 1) % kbdBuffer.length;
-						}
-					}
-					synchronized (this)
+					// Some systems seem to mix up CR and LF.
+					if (((' ' <= ch) && (ch <= '~')) || (ch == '\n'))
 					{
-						notify ();
+						pasted [count++] = ch;
 					}
 				}
+				// Large pastes spill into the buffer's overflow rather than being refused.
+				kbdBuffer.putAll (pasted, count);
 			}
 			catch (Exception exception)
 			{
@@ -867,6 +1031,7 @@ public class ConsoleCanvas extends JPanel implements ActionListener, KeyListener
 	 */
 	public void keyReleased (KeyEvent e)
 	{
+		container.postEvent (ConsoleEvent.key (ConsoleEvent.KEY_RELEASED, e.getKeyCode (), e.getKeyChar ()));
 		currentKeyCode = GraphicsConsole.VK_UNDEFINED;
 		currentKeyChar = (char) GraphicsConsole.VK_UNDEFINED;
 		if ((e.getKeyCode () >= 0) & (e.getKeyCode () < numKeyCodes))
@@ -879,101 +1044,344 @@ public class ConsoleCanvas extends JPanel implements ActionListener, KeyListener
 	{
 		// This event not handled.
 	}
+	/**
+	 * Changes the window title on the event dispatch thread, as Swing requires.
+	 */
+	private void setTitleLater(final String newTitle)
+	{
+		SwingUtilities.invokeLater (new Runnable () {
+			public void run () {
+				container.setTitle (newTitle);
+			}
+		});
+	}
 	private void cursorOff()
 	{
-		synchronized(container)
+		synchronized(lock)
 		{
 			cursorFlashing = false;
-			if (cursorVisible)
-				toggleVisibleCursor();
+			cursorVisible = false;
 		}
 	}
 	private void cursorOn()
 	{
-		synchronized(container)
+		synchronized(lock)
 		{
 			cursorFlashing = true;
 		}
 	}
+	/**
+	 * Flashes the cursor. The cursor is drawn by paintOverlay, so this only
+	 * flips a flag and never touches the off screen buffer.
+	 */
 	private void toggleVisibleCursor()
 	{
-			if (xorMode)
-				drawRect(actualCol*fontWidth+MARGIN, actualRow*fontHeight+MARGIN, fontWidth, fontHeight);
-			else
-			{
-				setXORMode(backgroundColor);
-				drawRect(actualCol*fontWidth+MARGIN, actualRow*fontHeight+MARGIN, fontWidth, fontHeight);
-				setPaintMode();
-			}
 			if (cursorVisible)
 				cursorVisible = false;
 			else
 				cursorVisible = true;
 	}
 	/**
-	 * Draws the specified text to the screen at the specified row and column
-	 * using the specified foreground and background colours. Adapted from hsa.
+	 * Writes characters start to end-1 of the text into the cell grid at the
+	 * specified row and column using the current foreground and background
+	 * colours. They reach the screen at the next flushText(). Adapted from hsa.
 	 */
-	private void drawText (int row, int col, String text)
+	private void drawText (int row, int col, CharSequence text, int start, int end)
 	{
-		int x = (col) * fontWidth;
-		int y = (row) * fontHeight;
-			Graphics g = buffer.getGraphics ();
-
-			// Erase the area that the image will appear on.
-			g.setColor (backgroundColor);
-			g.fillRect (x+MARGIN, y+MARGIN, fontWidth * text.length (), fontHeight);
-
-			// Draw the text
-			g.setColor (foregroundColor);
-			g.setFont (textFont);
-			g.drawString (text, x+MARGIN, y+MARGIN + fontHeight - fontBase);
+		if (row < 0 || row >= numRows || col < 0)
+			return;
+		end = Math.min (end, start + numCols - col);
+		if (end <= start)
+			return;
+		synchronized(lock)
+		{
+			int line = ringRow (row);
+			int cell = line * numCols + col;
+			for (int i = start ; i < end ; i++, cell++)
+			{
+				cellChars [cell] = text.charAt (i);
+				cellForeground [cell] = foregroundColor;
+				cellBackground [cell] = backgroundColor;
+			}
+			markDirty (line, col, col + end - start - 1);
+		}
 	}
 	/**
-	 * Clears a rectangle on console canvas from the specified row and column to
-	 * the end of line. Adapted from hsa.
+	 * Clears the cells from the specified row and column to the end of line.
+	 * Adapted from hsa.
 	 */
 	private void clearToEOL (int row, int col)
 	{
-		int x = (col) * fontWidth;
-		int y = (row) * fontHeight;
-		int len = width - x;
-			Graphics g = buffer.getGraphics ();
-
-			// First clear the rectangle on the offscreen image.
-			g.setColor (backgroundColor);
-			g.fillRect (x+MARGIN, y+MARGIN, len, fontHeight);
+		if (row < 0 || row >= numRows || col < 0 || col >= numCols)
+			return;
+		synchronized(lock)
+		{
+			blankCells (ringRow (row), col);
+		}
 	}
 	/**
 	 * Scrolls up the entire ConsoleCanvas a single line. The blank space at the
-	 * bottom is filled in the specified colour. Adapted from hsa.
+	 * bottom is filled in the specified colour. The top line moves into the
+	 * scrollback history and the screen pixels follow at the next flushText().
+	 * Adapted from hsa.
 	 */
 	private void scrollUpALine ()
 	{
-		synchronized(container)
+		synchronized(lock)
 		{
+			topLine = (topLine + 1) % ringRows;
+			if (historyLines < SCROLLBACK_LINES)
+				historyLines++;
+			// Someone reading the history keeps looking at the same lines
+			if (scrollBackOffset > 0)
+				scrollBackOffset = Math.min (scrollBackOffset + 1, historyLines);
+			pendingScroll++;
+			blankCells (ringRow (numRows - 1), 0);
+		}
+	}
+	/**
+	 * Returns the ring row holding the given screen row.
+	 */
+	private int ringRow (int row)
+	{
+		return (topLine + row) % ringRows;
+	}
+	/**
+	 * Blanks a ring row from the given column to its end in the current
+	 * colours. Called with the lock held.
+	 */
+	private void blankCells (int line, int col)
+	{
+		int rowStart = line * numCols;
+		Arrays.fill (cellChars, rowStart + col, rowStart + numCols, ' ');
+		Arrays.fill (cellForeground, rowStart + col, rowStart + numCols, foregroundColor);
+		Arrays.fill (cellBackground, rowStart + col, rowStart + numCols, backgroundColor);
+		markDirty (line, col, numCols - 1);
+	}
+	/**
+	 * Marks columns from to to (inclusive) of a ring row as needing to be drawn.
+	 * Called with the lock held.
+	 */
+	private void markDirty (int line, int from, int to)
+	{
+		dirtyFrom [line] = Math.min (dirtyFrom [line], from);
+		dirtyTo [line] = Math.max (dirtyTo [line], to);
+		textDirty = true;
+	}
+	/**
+	 * Blanks the cells on screen without drawing anything; used when the whole
+	 * screen is about to be cleared anyway. The scrollback history is kept.
+	 */
+	private void clearText ()
+	{
+		synchronized(lock)
+		{
+			for (int row = 0 ; row < numRows ; row++)
+			{
+				int rowStart = ringRow (row) * numCols;
+				Arrays.fill (cellChars, rowStart, rowStart + numCols, ' ');
+				Arrays.fill (cellForeground, rowStart, rowStart + numCols, foregroundColor);
+				Arrays.fill (cellBackground, rowStart, rowStart + numCols, backgroundColor);
+			}
+			Arrays.fill (dirtyFrom, Integer.MAX_VALUE);
+			Arrays.fill (dirtyTo, -1);
+			pendingScroll = 0;
+			textDirty = false;
+		}
+	}
+	/**
+	 * Brings the off screen buffer up to date with the cell grid: moves the
+	 * pixels up once for all the lines scrolled since the last flush, then
+	 * draws every dirty span on screen, one fillRect and one drawChars per run
+	 * of same coloured cells.
+	 */
+	private void flushText ()
+	{
+		if (!textDirty)
+			return;
+		synchronized(lock)
+		{
+			if (!textDirty)
+				return;
 			Graphics g = buffer.getGraphics ();
-			// Scroll the screen up
-			g.copyArea (0, fontHeight, width, height - fontHeight, 0, -fontHeight);
-			// Erase the last line
-			g.setColor (backgroundColor);
-			g.fillRect (0, height - fontHeight, width, fontHeight);
+			if (pendingScroll > 0)
+			{
+				int shift = pendingScroll * fontHeight;
+				pendingScroll = 0;
+				g.setColor (backgroundColor);
+				if (shift < height)
+				{
+					// Scroll the screen up and erase the lines uncovered at the bottom
+					g.copyArea (0, shift, width, height - shift, 0, -shift);
+					g.fillRect (0, height - shift, width, shift);
+				}
+				else
+				{
+					// Everything scrolled off, so redraw the screen from the cells
+					g.fillRect (0, 0, width, height);
+					for (int row = 0 ; row < numRows ; row++)
+						markDirty (ringRow (row), 0, numCols - 1);
+				}
+			}
+			textDirty = false;
+			g.setFont (textFont);
+			for (int row = 0 ; row < numRows ; row++)
+			{
+				int line = ringRow (row);
+				if (dirtyFrom [line] <= dirtyTo [line])
+				{
+					blitCells (g, line, row, dirtyFrom [line], dirtyTo [line]);
+					dirtyFrom [line] = Integer.MAX_VALUE;
+					dirtyTo [line] = -1;
+				}
+			}
+			g.dispose ();
+		}
+	}
+	/**
+	 * Draws the screen as it was the given number of rows back in the
+	 * scrollback history. Only text is kept in the history, so graphics that
+	 * were drawn over it do not appear.
+	 */
+	private void drawScrollBack (Graphics g, int offset)
+	{
+		g.setColor (backgroundColor);
+		g.fillRect (0, 0, width, height);
+		g.setFont (textFont);
+		for (int row = 0 ; row < numRows ; row++)
+			drawCells (g, (topLine - offset + row + ringRows) % ringRows, row, 0, numCols - 1);
+	}
+	/**
+	 * Writes columns from to to (inclusive) of a ring row of cells from the
+	 * glyph atlas into the text strip, then draws each run from the strip into
+	 * the off screen buffer. Runs with a translucent colour or a character
+	 * missing from the atlas are drawn by drawCells.
+	 */
+	private void blitCells (Graphics g, int line, int row, int from, int to)
+	{
+		int rowStart = line * numCols;
+		int y = row * fontHeight + MARGIN;
+		int col = from;
+		while (col <= to)
+		{
+			Color fg = cellForeground [rowStart + col];
+			Color bg = cellBackground [rowStart + col];
+			int end = col;
+			boolean inAtlas = GlyphAtlas.contains (cellChars [rowStart + col]);
+			while (end < to && cellForeground [rowStart + end + 1] == fg
+					&& cellBackground [rowStart + end + 1] == bg)
+			{
+				end++;
+				inAtlas &= GlyphAtlas.contains (cellChars [rowStart + end]);
+			}
+			if (!inAtlas || fg.getAlpha () != 255 || bg.getAlpha () != 255)
+			{
+				drawCells (g, line, row, col, end);
+			}
+			else
+			{
+				int foreground = fg.getRGB (), background = bg.getRGB ();
+				int left = col * fontWidth + MARGIN, x = left;
+				for (int c = col ; c <= end ; c++, x += fontWidth)
+					glyphs.drawGlyph (cellChars [rowStart + c], foreground, background,
+							stripPixels, width, x);
+				// The last column also clears the leftover margin, as clearToEOL did
+				if (end == numCols - 1)
+				{
+					for (int py = 0 ; py < fontHeight ; py++)
+						Arrays.fill (stripPixels, py * width + x, py * width + width, background);
+					x = width;
+				}
+				g.drawImage (textStrip, left, y, x, y + fontHeight, left, 0, x, fontHeight, null);
+			}
+			col = end + 1;
+		}
+	}
+	/**
+	 * Draws columns from to to (inclusive) of a ring row of cells on the given
+	 * screen row. A span that reaches the last column also clears the leftover
+	 * margin, as clearToEOL did.
+	 */
+	private void drawCells (Graphics g, int line, int row, int from, int to)
+	{
+		int rowStart = line * numCols;
+		int y = row * fontHeight + MARGIN;
+		int col = from;
+		while (col <= to)
+		{
+			Color fg = cellForeground [rowStart + col];
+			Color bg = cellBackground [rowStart + col];
+			int end = col;
+			while (end < to && cellForeground [rowStart + end + 1] == fg
+					&& cellBackground [rowStart + end + 1] == bg)
+				end++;
+			int x = col * fontWidth + MARGIN;
+			int runWidth = (end == numCols - 1) ? width - x : (end - col + 1) * fontWidth;
+
+			// Erase the area that the text will appear on, then draw the text
+			g.setColor (bg);
+			g.fillRect (x, y, runWidth, fontHeight);
+			g.setColor (fg);
+			g.drawChars (cellChars, rowStart + col, end - col + 1, x, y + fontHeight - fontBase);
+			col = end + 1;
+		}
+	}
+	/**
+	 * Returns a copy of the off screen buffer, taken while holding the
+	 * console lock so that it never shows a half drawn frame.
+	 */
+	BufferedImage copyBuffer()
+	{
+		BufferedImage copy = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+		synchronized(lock)
+		{
+			flushText();
+			Graphics g = copy.getGraphics();
+			g.drawImage(buffer, 0, 0, null);
+			g.dispose();
 		}
+		return copy;
 	}
 	public void paintComponent(Graphics g)
 	{	  
-		synchronized(container)
+		synchronized(lock)
+		{
+			flushText();
+			int offset = scrollBackOffset;
+			if (offset > 0)
+				drawScrollBack(g, offset);
+			else
+			{
+				g.drawImage(buffer, 0, 0, width, height, this);
+				paintOverlay(g);
+			}
+		}
+	}
+	/**
+	 * Draws whatever sits on top of the off screen buffer without being part
+	 * of it - for now just the flashing text cursor. It is drawn on the screen
+	 * only, each time the buffer is shown, so it can never leave marks in the
+	 * buffer or in a copy of it.
+	 */
+	private void paintOverlay(Graphics g)
+	{
+		if (cursorVisible)
 		{
-			g.drawImage(buffer, 0, 0, width, height, this);
+			g.setColor(foregroundColor);
+			g.setXORMode(xorMode ? xorColor : backgroundColor);
+			g.drawRect(actualCol*fontWidth+MARGIN, actualRow*fontHeight+MARGIN, fontWidth, fontHeight);
+			g.setPaintMode();
 		}
 	}
 	public void actionPerformed (ActionEvent e)
 	{
+		container.publishInputSnapshot();
+		flushText();
 		if (cursorFlashing)
 		{
 			flashCount = (flashCount+1)%flashSpeed;
 			if (flashCount == 0) {
-				synchronized(container) {
+				synchronized(lock) {
 					toggleVisibleCursor();
 				}
 			}
@@ -982,6 +1390,8 @@ public class ConsoleCanvas extends JPanel implements ActionListener, KeyListener
 	}
 	private Graphics getOffscreenGraphics()
 	{
+		// Text printed before this drawing call has to be underneath it
+		flushText();
 		Graphics g = buffer.getGraphics();
 		if (xorMode)
 			g.setXORMode(xorColor);
@@ -1034,7 +1444,7 @@ public class ConsoleCanvas extends JPanel implements ActionListener, KeyListener
 		actualRow = currentRow;
 		actualCol = currentCol;
 
-		drawText (currentRow, currentCol, " ");
+		drawText (currentRow, currentCol, " ", 0, 1);
 		setCursorPos (currentRow, currentCol);
 
 		if ((currentCol == -1) && (currentRow != startRow))
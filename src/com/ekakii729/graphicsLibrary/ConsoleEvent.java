@@ -0,0 +1,119 @@
+package com.ekakii729.graphicsLibrary;
+
+/**
+ * A single keyboard or mouse event, recorded by the GraphicsConsole at the
+ * moment it happened. Unlike getKeyCode() and getMouseX(), which only report
+ * the state at the time you ask, these are queued up so that a key that is
+ * pressed and released between two frames is never missed.
+ * <p>
+ * Get them with GraphicsConsole.drainEvents().
+ * <p>
+ * @author Abhay Manoj
+ * @version 3.0
+ */
+public class ConsoleEvent {
+
+	/** A key was pressed. getKeyCode() and getKeyChar() tell which. **/
+	public static final int KEY_PRESSED = 0;
+	/** A key was released. getKeyCode() and getKeyChar() tell which. **/
+	public static final int KEY_RELEASED = 1;
+	/** A mouse button was pressed. Needs enableMouse(). **/
+	public static final int MOUSE_PRESSED = 2;
+	/** A mouse button was released. Needs enableMouse(). **/
+	public static final int MOUSE_RELEASED = 3;
+	/** A mouse button was clicked. getClickCount() tells how many times. Needs enableMouse(). **/
+	public static final int MOUSE_CLICKED = 4;
+	/** The mouse moved with no button held down. Needs enableMouseMotion(). **/
+	public static final int MOUSE_MOVED = 5;
+	/** The mouse moved with a button held down. Needs enableMouseMotion(). **/
+	public static final int MOUSE_DRAGGED = 6;
+	/** The mouse wheel was turned. getWheelRotation() tells how far. Needs enableMouseWheel(). **/
+	public static final int MOUSE_WHEEL = 7;
+
+	private final int type;
+	private final long time;
+	private final int keyCode;
+	private final char keyChar;
+	private final int x, y;
+	private final int button;
+	private final int amount;
+
+	ConsoleEvent(int type, long time, int keyCode, char keyChar, int x, int y, int button, int amount) {
+		this.type = type;
+		this.time = time;
+		this.keyCode = keyCode;
+		this.keyChar = keyChar;
+		this.x = x;
+		this.y = y;
+		this.button = button;
+		this.amount = amount;
+	}
+	static ConsoleEvent key(int type, int keyCode, char keyChar) {
+		return new ConsoleEvent(type, System.nanoTime(), keyCode, keyChar, 0, 0, 0, 0);
+	}
+	static ConsoleEvent mouse(int type, int x, int y, int button, int amount) {
+		return new ConsoleEvent(type, System.nanoTime(), GraphicsConsole.VK_UNDEFINED,
+				(char) GraphicsConsole.VK_UNDEFINED, x, y, button, amount);
+	}
+
+	/**
+	 * @return One of KEY_PRESSED, KEY_RELEASED, MOUSE_PRESSED, etc.
+	 */
+	public int getType() {
+		return type;
+	}
+	/**
+	 * @return When the event happened, from System.nanoTime()
+	 */
+	public long getTime() {
+		return time;
+	}
+	/**
+	 * @return The key code for key events, VK_UNDEFINED otherwise
+	 */
+	public int getKeyCode() {
+		return keyCode;
+	}
+	/**
+	 * @return The character for key events, VK_UNDEFINED otherwise
+	 */
+	public char getKeyChar() {
+		return keyChar;
+	}
+	/**
+	 * @return The x coordinate of the mouse for mouse events
+	 */
+	public int getX() {
+		return x;
+	}
+	/**
+	 * @return The y coordinate of the mouse for mouse events
+	 */
+	public int getY() {
+		return y;
+	}
+	/**
+	 * @return The mouse button (0, 1 or 2) for press, release and click events, -1 otherwise
+	 */
+	public int getButton() {
+		return button;
+	}
+	/**
+	 * @return The number of clicks for MOUSE_CLICKED events
+	 */
+	public int getClickCount() {
+		return type == MOUSE_CLICKED ? amount : 0;
+	}
+	/**
+	 * @return The number of "clicks" the wheel turned for MOUSE_WHEEL events
+	 */
+	public int getWheelRotation() {
+		return type == MOUSE_WHEEL ? amount : 0;
+	}
+	/**
+	 * @return True for KEY_PRESSED and KEY_RELEASED events
+	 */
+	public boolean isKeyEvent() {
+		return type == KEY_PRESSED || type == KEY_RELEASED;
+	}
+}
@@ -0,0 +1,105 @@
+package com.ekakii729.graphicsLibrary;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * A fixed size ring buffer of input events with exactly one writer (the
+ * event dispatch thread, from the key and mouse listeners) and one reader
+ * (the program's own thread, through GraphicsConsole.drainEvents()).
+ * <p>
+ * Neither side ever takes a lock, so the event dispatch thread is never
+ * held up by a program that is busy drawing. The writer moves head, with
+ * the ordered write of lazySet making the slot contents visible to the
+ * reader before the counter that hands the slot over.
+ * <p>
+ * If the reader falls a whole buffer behind, the oldest event is dropped
+ * (and counted) to make room, so the latest input is always kept. Both
+ * sides can move tail for this, so each claims an event with a
+ * compareAndSet: a reader that loses the race to the writer throws away
+ * what it read from the slot and tries the next one.
+ * <p>
+ * @author Abhay Manoj
+ * @version 3.0
+ */
+class ConsoleEventQueue {
+
+	private final ConsoleEvent[] events;
+	private final int mask;
+	/** Number of events ever written. Only changed by the writer. **/
+	private final AtomicLong head = new AtomicLong();
+	/** Number of events ever read or dropped. **/
+	private final AtomicLong tail = new AtomicLong();
+	/** Events dropped because the buffer was full. Only changed by the writer. **/
+	private volatile long dropped = 0;
+
+	/**
+	 * @param capacity Number of events held, rounded up to a power of two
+	 */
+	ConsoleEventQueue(int capacity) {
+		int size = Integer.highestOneBit(Math.max(1, capacity - 1)) << 1;
+		events = new ConsoleEvent [size];
+		mask = size - 1;
+	}
+
+	/**
+	 * Adds an event. Must only be called from the single writer thread.
+	 * @return False if the buffer was full and the oldest event was dropped
+	 */
+	boolean offer(ConsoleEvent e) {
+		long h = head.get();
+		boolean full = false;
+		long t;
+		while (h - (t = tail.get()) == events.length) {
+			if (tail.compareAndSet(t, t + 1)) {
+				dropped++;
+				full = true;
+			}
+		}
+		events [(int) h & mask] = e;
+		head.lazySet(h + 1);
+		return !full;
+	}
+
+	/**
+	 * Hands every event written so far to the handler, oldest first.
+	 * Must only be called from the single reader thread.
+	 * @return The number of events handed over
+	 */
+	int drainTo(Consumer<? super ConsoleEvent> handler) {
+		long h = head.get();
+		int count = 0;
+		long t;
+		while ((t = tail.get()) < h) {
+			// Slots are left holding their events rather than cleared, as the
+			// writer may already be filling this one again
+			ConsoleEvent e = events [(int) t & mask];
+			if (tail.compareAndSet(t, t + 1)) {
+				handler.accept(e);
+				count++;
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * Checks the events not yet read, leaving them queued.
+	 * Must only be called from the single reader thread.
+	 * @return Whether any of them matches the condition
+	 */
+	boolean contains(Predicate<? super ConsoleEvent> condition) {
+		long h = head.get();
+		for (long t = tail.get() ; t < h ; t++)
+			if (condition.test(events [(int) t & mask]))
+				return true;
+		return false;
+	}
+
+	/**
+	 * @return Events dropped so far because the reader fell behind
+	 */
+	long getDropped() {
+		return dropped;
+	}
+}
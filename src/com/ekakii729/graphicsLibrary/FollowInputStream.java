@@ -0,0 +1,294 @@
+package com.ekakii729.graphicsLibrary;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reads a file that is still being written, like "tail -f". At the end of
+ * the file a read waits for more to be written instead of returning -1,
+ * unless the timeout runs out first.
+ * <p>
+ * Only whole lines are read: bytes after the last line ending in the file
+ * are held back until the rest of that line and its ending are written, so
+ * a reader never sees half a line that is still being written. If the
+ * timeout runs out first, they are read as they are, as the last line.
+ * <p>
+ * While waiting it watches the file's folder with a WatchService, so it
+ * wakes up as soon as the file changes. It also checks the file on its own
+ * every so often, starting quickly and backing off to MAX_PAUSE_MILLIS, in
+ * case the WatchService is missing or slow to report changes (as it is on
+ * some systems).
+ * <p>
+ * If the file gets shorter than what has been read, it has been truncated
+ * and reading starts again from the beginning. If the name now refers to a
+ * different file, it has been rotated: whatever was left in the old file is
+ * read first (as a whole line, even without its line ending), then the new
+ * file is read from its beginning. Where the file
+ * system has no file keys (as on Windows), a file with a different creation
+ * time, or one shorter than the file being read, is taken to be a new file.
+ * <p>
+ * @author Abhay Manoj
+ * @version 3.0
+ */
+class FollowInputStream extends InputStream {
+
+	private static final long MIN_PAUSE_MILLIS = 10;
+	private static final long MAX_PAUSE_MILLIS = 500;
+
+	private final Path path;
+	/** How long a read waits for more of the file, or 0 to wait forever. **/
+	private final long timeoutMillis;
+	private FileChannel channel;
+	/** Identify the file being read, to notice when the name is given to another one. **/
+	private Object fileKey;
+	private FileTime creationTime;
+	private long position = 0;
+	/** Just past the last line ending found; nothing past it is read yet. **/
+	private long lineEnd = 0;
+	/** How far the file has been searched for line endings. **/
+	private long searched = 0;
+	/** Set when a rotated file ended part way through a line, to end it before the new file. **/
+	private boolean lineEndOwed = false;
+	/** Null if the folder can't be watched; the periodic checks still work. **/
+	private WatchService watcher = null;
+
+	/**
+	 * @param path The file to read
+	 * @param fromEnd Start at the beginning of the last line instead of the start of the file
+	 * @param timeoutMillis How long a read may wait at the end of the file, or 0 to wait forever
+	 */
+	FollowInputStream(Path path, boolean fromEnd, long timeoutMillis) throws IOException {
+		this.path = path;
+		this.timeoutMillis = timeoutMillis;
+		channel = FileChannel.open(path, StandardOpenOption.READ);
+		BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+		fileKey = attributes.fileKey();
+		creationTime = attributes.creationTime();
+		if (fromEnd)
+			position = lastLineStart();
+		Path folder = path.toAbsolutePath().getParent();
+		try {
+			watcher = FileSystems.getDefault().newWatchService();
+			folder.register(watcher, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+		} catch (IOException | UnsupportedOperationException e) {
+			closeWatcher();
+		}
+	}
+
+	public int read() throws IOException {
+		byte[] one = new byte [1];
+		return read(one, 0, 1) == -1 ? -1 : one [0] & 0xFF;
+	}
+
+	public int read(byte[] b, int off, int len) throws IOException {
+		Objects.checkFromIndexSize(off, len, b.length);
+		if (len == 0)
+			return 0;
+		long deadline = timeoutMillis == 0 ? Long.MAX_VALUE : System.currentTimeMillis() + timeoutMillis;
+		long pause = MIN_PAUSE_MILLIS;
+		while (true) {
+			if (lineEndOwed) {
+				lineEndOwed = false;
+				b [off] = '\n';
+				return 1;
+			}
+			if (position >= lineEnd)
+				findLineEnd();
+			if (position < lineEnd) {
+				int n = channel.read(ByteBuffer.wrap(b, off, (int) Math.min(len, lineEnd - position)), position);
+				if (n > 0) {
+					position += n;
+					return n;
+				}
+			}
+			if (fileMoved())
+				continue;
+			long left = deadline - System.currentTimeMillis();
+			if (left <= 0) {
+				long size = channel.size();
+				if (position >= size)
+					return -1;
+				// Out of time part way through a line, so it is read as the last line
+				lineEnd = size;
+				searched = Math.max(searched, size);
+				continue;
+			}
+			waitForChange(Math.min(pause, left));
+			pause = Math.min(pause * 2, MAX_PAUSE_MILLIS);
+		}
+	}
+
+	public int available() throws IOException {
+		return (int) Math.max(0, Math.min(Integer.MAX_VALUE, lineEnd - position));
+	}
+
+	/**
+	 * Moves to a byte offset in the file being read.
+	 */
+	void seek(long offset) {
+		position = offset;
+	}
+
+	public void close() throws IOException {
+		closeWatcher();
+		channel.close();
+	}
+
+	/**
+	 * Searches the part of the file not yet searched for its last line
+	 * ending, moving lineEnd past it.
+	 */
+	private void findLineEnd() throws IOException {
+		long end = channel.size();
+		long start = Math.max(searched, position);
+		ByteBuffer block = ByteBuffer.allocate(8192);
+		while (start < end) {
+			block.clear().limit((int) Math.min(block.capacity(), end - start));
+			int n = channel.read(block, start);
+			if (n <= 0)
+				break;
+			for (int i = n - 1 ; i >= 0 ; i--) {
+				byte b = block.get(i);
+				if (b == '\n' || b == '\r') {
+					lineEnd = start + i + 1;
+					break;
+				}
+			}
+			start += n;
+		}
+		searched = start;
+	}
+
+	/**
+	 * Checks for the file being truncated or rotated, and starts reading
+	 * from the beginning of it (or of the new file) if it was. Only called
+	 * when every whole line in the file has been read.
+	 * @return Whether there may be something new to read
+	 */
+	private boolean fileMoved() throws IOException {
+		long size = channel.size();
+		if (size < position) {
+			startAgain();
+			return true;
+		}
+		BasicFileAttributes attributes;
+		try {
+			attributes = Files.readAttributes(path, BasicFileAttributes.class);
+		} catch (NoSuchFileException e) {
+			// Part way through being rotated; the new file will turn up
+			return false;
+		}
+		if (isSameFile(attributes, size))
+			return false;
+		if (position < size) {
+			// No more is coming, so the old file's unfinished last line is read first
+			lineEnd = size;
+			return true;
+		}
+		FileChannel rotated;
+		try {
+			rotated = FileChannel.open(path, StandardOpenOption.READ);
+		} catch (NoSuchFileException e) {
+			return false;
+		}
+		lineEndOwed = position > 0 && !endsLine(position - 1);
+		channel.close();
+		channel = rotated;
+		fileKey = attributes.fileKey();
+		creationTime = attributes.creationTime();
+		startAgain();
+		return true;
+	}
+
+	/**
+	 * @param openSize The size of the file being read, taken before the attributes
+	 * @return Whether the attributes are those of the file being read
+	 */
+	private boolean isSameFile(BasicFileAttributes attributes, long openSize) {
+		Object key = attributes.fileKey();
+		if (key != null || fileKey != null)
+			return Objects.equals(key, fileKey);
+		// Without file keys, a new file has a different creation time or is
+		// shorter (Windows can give a new file the old one's creation time)
+		return attributes.creationTime().equals(creationTime) && attributes.size() >= openSize;
+	}
+
+	private boolean endsLine(long offset) throws IOException {
+		ByteBuffer one = ByteBuffer.allocate(1);
+		if (channel.read(one, offset) != 1)
+			return true;
+		return one.get(0) == '\n' || one.get(0) == '\r';
+	}
+
+	private void startAgain() {
+		position = 0;
+		lineEnd = 0;
+		searched = 0;
+	}
+
+	private void waitForChange(long millis) throws IOException {
+		try {
+			if (watcher == null) {
+				Thread.sleep(millis);
+				return;
+			}
+			WatchKey key = watcher.poll(millis, TimeUnit.MILLISECONDS);
+			if (key != null) {
+				// Whatever changed, the caller looks at the file again
+				key.pollEvents();
+				key.reset();
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Interrupted while waiting for " + path);
+		}
+	}
+
+	/**
+	 * @return Where the last line of the file starts, so that a line still
+	 *         being written is read whole
+	 */
+	private long lastLineStart() throws IOException {
+		long end = channel.size();
+		ByteBuffer block = ByteBuffer.allocate(8192);
+		while (end > 0) {
+			long start = Math.max(0, end - block.capacity());
+			block.clear().limit((int) (end - start));
+			while (block.hasRemaining() && channel.read(block, start + block.position()) != -1)
+				;
+			for (int i = block.position() - 1 ; i >= 0 ; i--) {
+				byte b = block.get(i);
+				if (b == '\n' || b == '\r')
+					return start + i + 1;
+			}
+			end = start;
+		}
+		return 0;
+	}
+
+	private void closeWatcher() {
+		if (watcher == null)
+			return;
+		try {
+			watcher.close();
+		} catch (IOException e) {
+			// Nothing more to do with it
+		}
+		watcher = null;
+	}
+}
@@ -0,0 +1,107 @@
+package com.ekakii729.graphicsLibrary;
+
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+
+/**
+ * Prerendered coverage masks for the printable ASCII characters of the
+ * console's text font, one cell (fontWidth by fontHeight) per character.
+ * <p>
+ * Because the masks hold coverage rather than colour, one atlas serves every
+ * foreground/background pair: a cell is written straight into an int ARGB
+ * raster by picking the background, the foreground, or a blend of the two
+ * for each pixel. That skips text layout and rasterisation entirely, so
+ * console text is drawn about as fast as the pixels can be stored.
+ * <p>
+ * Only opaque colours are handled here; translucent text has to be composited
+ * with the pixels underneath and goes through Graphics.drawChars as before.
+ * <p>
+ * @author Abhay Manoj
+ * @version 3.0
+ */
+class GlyphAtlas {
+
+	static final char FIRST = ' ';
+	static final char LAST = '~';
+
+	private final int cellWidth, cellHeight;
+	/** Coverage (0 to 255) of every pixel of every glyph cell, one cell after another. **/
+	private final byte[] coverage;
+
+	/**
+	 * Renders the glyphs the same way ConsoleCanvas draws text with drawChars,
+	 * with the baseline fontBase pixels above the bottom of the cell.
+	 */
+	GlyphAtlas(Font font, int cellWidth, int cellHeight, int fontBase) {
+		this.cellWidth = cellWidth;
+		this.cellHeight = cellHeight;
+		int count = LAST - FIRST + 1;
+		BufferedImage sheet = new BufferedImage(cellWidth * count, cellHeight, BufferedImage.TYPE_BYTE_GRAY);
+		Graphics2D g = sheet.createGraphics();
+		g.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_OFF);
+		g.setFont(font);
+		g.setColor(Color.white);
+		char[] glyph = new char[1];
+		for (int i = 0; i < count; i++) {
+			// Clip to the cell so an overhanging glyph does not leak into its neighbour
+			g.setClip(i * cellWidth, 0, cellWidth, cellHeight);
+			glyph[0] = (char) (FIRST + i);
+			g.drawChars(glyph, 0, 1, i * cellWidth, cellHeight - fontBase);
+		}
+		g.dispose();
+
+		coverage = new byte[count * cellWidth * cellHeight];
+		int[] row = new int[cellWidth];
+		int pos = 0;
+		for (int i = 0; i < count; i++) {
+			for (int y = 0; y < cellHeight; y++) {
+				sheet.getRaster().getPixels(i * cellWidth, y, cellWidth, 1, row);
+				for (int x = 0; x < cellWidth; x++)
+					coverage[pos++] = (byte) row[x];
+			}
+		}
+	}
+
+	/**
+	 * @return Whether ch has a glyph in the atlas
+	 */
+	static boolean contains(char ch) {
+		return ch >= FIRST && ch <= LAST;
+	}
+
+	/**
+	 * Writes the glyph for ch into an ARGB raster with its top left corner at
+	 * the given offset. Both colours must be opaque ARGB values.
+	 * @param pixels The raster
+	 * @param scan Width of a raster row in pixels
+	 * @param offset Index in pixels of the top left corner of the cell
+	 */
+	void drawGlyph(char ch, int foreground, int background, int[] pixels, int scan, int offset) {
+		int src = (ch - FIRST) * cellWidth * cellHeight;
+		for (int y = 0; y < cellHeight; y++, offset += scan) {
+			for (int x = 0; x < cellWidth; x++) {
+				int alpha = coverage[src++] & 0xFF;
+				if (alpha == 0)
+					pixels[offset + x] = background;
+				else if (alpha == 255)
+					pixels[offset + x] = foreground;
+				else
+					pixels[offset + x] = blend(foreground, background, alpha);
+			}
+		}
+	}
+
+	/**
+	 * Mixes two opaque colours, alpha/255 of the first.
+	 */
+	private static int blend(int foreground, int background, int alpha) {
+		int inverse = 255 - alpha;
+		int r = (((foreground >> 16) & 0xFF) * alpha + ((background >> 16) & 0xFF) * inverse) / 255;
+		int gr = (((foreground >> 8) & 0xFF) * alpha + ((background >> 8) & 0xFF) * inverse) / 255;
+		int b = ((foreground & 0xFF) * alpha + (background & 0xFF) * inverse) / 255;
+		return 0xFF000000 | r << 16 | gr << 8 | b;
+	}
+}
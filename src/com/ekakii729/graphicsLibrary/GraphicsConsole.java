@@ -11,11 +11,20 @@ import java.awt.event.MouseListener;
 import java.awt.event.MouseMotionListener;
 import java.awt.event.MouseWheelEvent;
 import java.awt.event.MouseWheelListener;
-import java.text.DecimalFormat;
-import java.text.NumberFormat;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+import java.util.function.ObjIntConsumer;
+import java.util.function.Predicate;
 
 import javax.swing.JFrame;
 import javax.swing.JPanel;
+import javax.swing.SwingUtilities;
 
 /**
  * This is a re-implementation of the old hsa console by Holt Software Associates.
@@ -43,7 +52,7 @@ import javax.swing.JPanel;
  * @author Michael Harwood (setStroke, antiAlias)
  * @version 3.0
  */
-public class GraphicsConsole extends JFrame implements MouseListener, MouseMotionListener, MouseWheelListener {
+public class GraphicsConsole extends JFrame implements MouseListener, MouseMotionListener, MouseWheelListener, GraphicsSurface {
 
 	// Constants for setting up the window 
 	private static final long serialVersionUID = 1L;
@@ -54,6 +63,9 @@ public class GraphicsConsole extends JFrame implements MouseListener, MouseMotio
 
 	// The main drawing surface
 	private ConsoleCanvas canvas;
+	// Reused to format numbers for print without creating Strings; only used
+	// while holding the console lock, which ConsoleCanvas.print takes anyway
+	private final NumberFormatter formatter = new NumberFormatter();
 
 	// Constants for the getKey methods
 	/** Code for the ALT key **/
@@ -145,8 +157,48 @@ public class GraphicsConsole extends JFrame implements MouseListener, MouseMotio
 
 	// Mouse Variables
 
+	// Live mouse state. Only touched on the event dispatch thread, which copies it
+	// into an immutable snapshot once per screen refresh (see publishInputSnapshot).
 	private boolean mouseButton[] = { false, false, false };
-	private int mouseX = 0, mouseY = 0, mouseClick = 0, mouseWheelRotation = 0, mouseWheelUnitsToScroll = 0;
+	private int mouseX = 0, mouseY = 0;
+	private boolean mouseChanged = false;
+	private static final int[] NO_TRAIL = new int [0];
+	private volatile InputSnapshot inputSnapshot = new InputSnapshot(0, 0, mouseButton, NO_TRAIL, NO_TRAIL, System.nanoTime());
+
+	// Sampled mouse motion. Also only touched on the event dispatch thread, apart
+	// from the flag and the published rate.
+	private volatile boolean sampledMouseMotion = false;
+	private int[] trailX = NO_TRAIL, trailY = NO_TRAIL;
+	private int trailStart = 0, trailCount = 0;
+	private int motionEventCount = 0;
+	private long motionRateWindowStart = System.nanoTime();
+	private volatile double mouseMotionEventRate = 0;
+	// Counters read and reset by the program's thread, so they are updated atomically
+	private final AtomicInteger mouseClick = new AtomicInteger();
+	private final AtomicInteger mouseWheelRotation = new AtomicInteger();
+	private final AtomicInteger mouseWheelUnitsToScroll = new AtomicInteger();
+
+	// Input event queue, filled by the key and mouse listeners on the event dispatch thread
+	private static final int EVENT_QUEUE_SIZE = 1024;
+	private final ConsoleEventQueue inputEvents = new ConsoleEventQueue(EVENT_QUEUE_SIZE);
+
+	// The call to waitFor() in progress, if any. Each call has its own
+	// Waiter, so a wake meant for one wait can never end the next.
+	private static final class Waiter {
+		final Thread thread = Thread.currentThread();
+		final Predicate<? super ConsoleEvent> wakeCondition;
+		volatile boolean woken = false;
+
+		Waiter(Predicate<? super ConsoleEvent> wakeCondition) {
+			this.wakeCondition = wakeCondition;
+		}
+	}
+	private final AtomicReference<Waiter> waiter = new AtomicReference<Waiter>();
+
+	// Frame capture variables
+
+	private ObjIntConsumer<BufferedImage> frameListener = null;
+	private int frameNumber = 0;
 
 	// ****************
 	// *** CONSTRUCTORS
@@ -330,6 +382,21 @@ public class GraphicsConsole extends JFrame implements MouseListener, MouseMotio
 	public void drawLine(int x1, int y1, int x2, int y2) {
 		canvas.drawLine(x1, y1, x2, y2);
 	} 
+	/**
+	 * Draws a batch of straight lines on the drawing area. Line i runs from
+	 * (x1[i], y1[i]) to (x2[i], y2[i]). Much faster than calling drawLine()
+	 * once per line when drawing thousands of lines per frame.
+	 * Stroke width can be set using setStroke().
+	 * AntiAliasing can be set using setAntiAlias()
+	 * @param x1 Starting x coordinates
+	 * @param y1 Starting y coordinates
+	 * @param x2 Ending x coordinates
+	 * @param y2 Ending y coordinates
+	 * @param n Number of lines to draw
+	 */
+	public void drawLines(int[] x1, int[] y1, int[] x2, int[] y2, int n) {
+		canvas.drawLines(x1, y1, x2, y2, n);
+	}
 
 	/**
 	 * Draws a polygon outline on the drawing area.
@@ -454,6 +521,8 @@ public class GraphicsConsole extends JFrame implements MouseListener, MouseMotio
 	 * Note that the coordinates specify the bottom left corner rather than the
 	 * top left corner for drawing.
 	 * AntiAliasing can be set using setAntiAlias()
+	 * Each string is rendered once and kept as an image, so redrawing the
+	 * same label every frame is cheap.
 	 * @param str The string to draw. 
 	 * @param x Bottom left X coordinate
 	 * @param y Bottom left Y coordinate
@@ -461,6 +530,12 @@ public class GraphicsConsole extends JFrame implements MouseListener, MouseMotio
 	public void drawString(String str, int x, int y) {
 		canvas.drawString(str, x, y);
 	}
+	/**
+	 * @return The fraction (0 to 1) of drawString calls that reused an already rendered string
+	 */
+	public double getTextCacheHitRate() {
+		return canvas.getTextCacheHitRate();
+	}
 	/**
 	 * Draws specified image on the drawing area. Note that if the image takes a while
 	 * to load, this method will delay until it is loaded, timing out after 1000 ms.
@@ -519,39 +594,8 @@ public class GraphicsConsole extends JFrame implements MouseListener, MouseMotio
 	 *            The height of the rectangle that the star is inscribed in.
 	 */
 	public void drawStar (int x, int y, int width, int height) {
-		int[] xPoints, yPoints;
-		float rx, ry, xc, yc;
-
-		rx = width;
-		ry = height;
-		xc = x + rx / 2;
-		yc = y + height;
-
-		xPoints = new int [11];
-		yPoints = new int [11];
-		xPoints [0] = (int) xc;
-		yPoints [0] = (int) (yc - ry);
-		xPoints [1] = (int) (xc + rx * 0.118034);
-		yPoints [1] = (int) (yc - ry * 0.618560);
-		xPoints [2] = (int) (xc + rx * 0.500000);
-		yPoints [2] = yPoints [1];
-		xPoints [3] = (int) (xc + rx * 0.190983);
-		yPoints [3] = (int) (yc - ry * 0.381759);
-		xPoints [4] = (int) (xc + rx * 0.309017);
-		yPoints [4] = (int) yc;
-		xPoints [5] = (int) xc;
-		yPoints [5] = (int) (yc - ry * 0.236068);
-		xPoints [6] = (int) (xc - rx * 0.309017);
-		yPoints [6] = yPoints [4];
-		xPoints [7] = (int) (xc - rx * 0.190983);
-		yPoints [7] = yPoints [3];
-		xPoints [8] = (int) (xc - rx * 0.500000);
-		yPoints [8] = yPoints [2];
-		xPoints [9] = (int) (xc - rx * 0.118034);
-		yPoints [9] = yPoints [1];
-		xPoints [10] = xPoints [0];
-		yPoints [10] = yPoints [0];
-		canvas.drawPolygon (xPoints, yPoints, 11);
+		Polygon star = starPolygon (x, y, width, height);
+		canvas.drawPolygon (star.xpoints, star.ypoints, star.npoints);
 	} 
 	/**
 	 * Draws a filled star on the screen from (x, y) to (x + width, y + width). Adapted from hsa.
@@ -566,6 +610,14 @@ public class GraphicsConsole extends JFrame implements MouseListener, MouseMotio
 	 *            The height of the rectangle that the star is inscribed in.
 	 */
 	public void fillStar (int x, int y, int width, int height) {
+		Polygon star = starPolygon (x, y, width, height);
+		canvas.fillPolygon (star.xpoints, star.ypoints, star.npoints);
+	}
+	/**
+	 * Works out the points of a star inscribed in a rectangle, for drawStar
+	 * and fillStar (and OffscreenConsole). Adapted from hsa.
+	 */
+	static Polygon starPolygon (int x, int y, int width, int height) {
 		int[] xPoints, yPoints;
 		float rx, ry, xc, yc;
 
@@ -598,7 +650,7 @@ public class GraphicsConsole extends JFrame implements MouseListener, MouseMotio
 		yPoints [9] = yPoints [1];
 		xPoints [10] = xPoints [0];
 		yPoints [10] = yPoints [0];
-		canvas.fillPolygon (xPoints, yPoints, 11);
+		return new Polygon (xPoints, yPoints, 11);
 	}
 
 	/**
@@ -803,6 +855,28 @@ public class GraphicsConsole extends JFrame implements MouseListener, MouseMotio
 	public int getNumRows() {
 		return canvas.getNumRows();
 	}
+	/**
+	 * Shows the text that scrolled off the top of the screen. The last 500
+	 * lines are kept and can also be paged through with Shift+Page Up and
+	 * Shift+Page Down; typing returns to the live screen. Only text is kept,
+	 * so graphics are not shown while looking back.
+	 * @param rows Number of rows to look back, 0 for the live screen
+	 */
+	public void setScrollBack(int rows) {
+		canvas.setScrollBack(rows);
+	}
+	/**
+	 * @return The number of rows currently being looked back, 0 if the live screen is showing
+	 */
+	public int getScrollBack() {
+		return canvas.getScrollBack();
+	}
+	/**
+	 * @return The number of rows of scrollback history available
+	 */
+	public int getScrollBackLength() {
+		return canvas.getScrollBackLength();
+	}
 	/**
 	 * Writes a newline to the GraphicsConsole. Adapted from hsa.
 	 */
@@ -978,7 +1052,9 @@ public class GraphicsConsole extends JFrame implements MouseListener, MouseMotio
 	 * @param ch The character to be written to the GraphicsConsole.
 	 */
 	public void print (char ch) {
-		print (String.valueOf (ch));
+		synchronized (this) {
+			canvas.print (formatter.clear ().append (ch));
+		}
 	}
 	/**
 	 * Writes a character to the GraphicsConsole with a specified field size. Adapted from hsa.
@@ -987,13 +1063,9 @@ public class GraphicsConsole extends JFrame implements MouseListener, MouseMotio
 	 * @param fieldSize The field width that the character is to be written in.
 	 */
 	public void print (char ch, int fieldSize) {
-		String charStr = String.valueOf (ch);
-		StringBuffer padding = new StringBuffer ();
-
-		for (int cnt = 0 ; cnt < fieldSize - charStr.length () ; cnt++)   {
-			padding.append (' ');
+		synchronized (this) {
+			canvas.print (formatter.clear ().append (ch).padRight (fieldSize));
 		}
-		print (charStr + padding);
 	}
 	/**
 	 * Writes a double precision floating point number (a "double") to
@@ -1012,56 +1084,9 @@ public class GraphicsConsole extends JFrame implements MouseListener, MouseMotio
 	 * @param fieldSize The field width that the number is to be written in.
 	 */
 	public void print (double number, int fieldSize) {
-		double posValue = Math.abs (number);
-		int placesRemaining = fieldSize;
-		String format = null, numStr;
-		StringBuffer padding = new StringBuffer ();
-
-		if (number < 0)
-			placesRemaining--;                 // Space for the minus sign
-		if (posValue < 10.0)
-			format = "0";
-		else if (posValue < 100.0)
-			format = "00";
-		else if (posValue < 1000.0)
-			format = "000";
-		else if (posValue < 10000.0)
-			format = "0000";
-		else if (posValue < 100000.0)
-			format = "00000";
-		else if (posValue < 1000000.0)
-			format = "000000";
-		else if (posValue < 10000000.0)
-			format = "0000000";
-		else if (posValue < 100000000.0)
-			format = "00000000";
-
-		if (format == null)   {
-			// We're using scientific notation
-			numStr = String.valueOf (number);
-		} else {
-			// Add a decimal point, if there's room
-			placesRemaining -= format.length ();
-			if (placesRemaining > 0) {
-				format = format + ".";
-				placesRemaining--;
-			}
-
-			// For any addition room, add decimal places
-			for (int cnt = 0 ; cnt < placesRemaining ; cnt++) {
-				format = format + "#";
-			}
-
-			// Convert the number
-			NumberFormat form = new DecimalFormat (format);
-			numStr = form.format (number);
-		}
-
-		// If the number is not long enough, pad with spaces
-		for (int cnt = 0 ; cnt < fieldSize - numStr.length () ; cnt++) {
-			padding.append (' ');
+		synchronized (this) {
+			canvas.print (formatter.clear ().appendFitted (number, fieldSize).padLeft (fieldSize));
 		}
-		print (padding + numStr);
 	}
 	/**
 	 * Writes a double precision floating point number (a "double") to
@@ -1074,57 +1099,9 @@ public class GraphicsConsole extends JFrame implements MouseListener, MouseMotio
 	 *    to be displayed.
 	 */
 	public void print (double number, int fieldSize, int decimalPlaces) {
-		double posValue = Math.abs (number);
-		//int placesRemaining = fieldSize;
-		String format = null, numStr;
-		StringBuffer padding = new StringBuffer ();
-
-		//if (number < 0)
-		// placesRemaining--;                 // Space for the minus sign
-		if (posValue < 10.0)
-			format = "0";
-		else if (posValue < 100.0)
-			format = "00";
-		else if (posValue < 1000.0)
-			format = "000";
-		else if (posValue < 10000.0)
-			format = "0000";
-		else if (posValue < 100000.0)
-			format = "00000";
-		else if (posValue < 1000000.0)
-			format = "000000";
-		else if (posValue < 10000000.0)
-			format = "0000000";
-		else if (posValue < 100000000.0)
-			format = "00000000";
-
-		if (Math.abs (number) >= 100000000.0)
-		{
-			// We're using scientific notation
-			numStr = String.valueOf (number);
-		}
-		else
-		{
-			format = "0.";
-
-			// For any addition room, add decimal places
-			for (int cnt = 0 ; cnt < decimalPlaces ; cnt++)
-			{
-				format = format + "0";
-			}
-
-			// Convert the number
-			NumberFormat form = new DecimalFormat (format);
-			form.setMinimumIntegerDigits (1);
-			numStr = form.format (number);
+		synchronized (this) {
+			canvas.print (formatter.clear ().appendFixed (number, decimalPlaces).padLeft (fieldSize));
 		}
-
-		// If the number is not long enough, pad with spaces
-		for (int cnt = 0 ; cnt < fieldSize - numStr.length () ; cnt++)
-		{
-			padding.append (' ');
-		}
-		print (padding + numStr);
 	}
 	/**
 	 * Writes a floating point number (a "float") to the GraphicsConsole. Adapted from hsa.
@@ -1164,7 +1141,9 @@ public class GraphicsConsole extends JFrame implements MouseListener, MouseMotio
 	 * @param number The number to be written to the GraphicsConsole.
 	 */
 	public void print (int number) {
-		print (String.valueOf (number));
+		synchronized (this) {
+			canvas.print (formatter.clear ().append (number));
+		}
 	}
 	/**
 	 * Writes the text representation of an 32-bit integer (an "int")
@@ -1174,13 +1153,9 @@ public class GraphicsConsole extends JFrame implements MouseListener, MouseMotio
 	 * @param fieldSize The field width that the number is to be written in.
 	 */
 	public void print (int number, int fieldSize) {
-		String numStr = String.valueOf (number);
-		StringBuffer padding = new StringBuffer ();
-
-		for (int cnt = 0 ; cnt < fieldSize - numStr.length () ; cnt++) {
-			padding.append (' ');
+		synchronized (this) {
+			canvas.print (formatter.clear ().append (number).padLeft (fieldSize));
 		}
-		print (padding + numStr);
 	}
 	/**
 	 * Writes the text representation of an 64-bit integer (a "long") to
@@ -1189,7 +1164,9 @@ public class GraphicsConsole extends JFrame implements MouseListener, MouseMotio
 	 * @param number The number to be written to the GraphicsConsole.
 	 */
 	public void print (long number) {
-		print (String.valueOf (number));
+		synchronized (this) {
+			canvas.print (formatter.clear ().append (number));
+		}
 	}
 	/**
 	 * Writes the text representation of an 64-bit integer (a "long")
@@ -1199,13 +1176,9 @@ public class GraphicsConsole extends JFrame implements MouseListener, MouseMotio
 	 * @param fieldSize The field width that the number is to be written in.
 	 */
 	public void print (long number, int fieldSize) {
-		String numStr = String.valueOf (number);
-		StringBuffer padding = new StringBuffer ();
-
-		for (int cnt = 0 ; cnt < fieldSize - numStr.length () ; cnt++) {
-			padding.append (' ');
+		synchronized (this) {
+			canvas.print (formatter.clear ().append (number).padLeft (fieldSize));
 		}
-		print (padding + numStr);
 	}
 	/**
 	 * Writes a string to the GraphicsConsole with a specified field size. Adapted from hsa.
@@ -1214,12 +1187,9 @@ public class GraphicsConsole extends JFrame implements MouseListener, MouseMotio
 	 * @param fieldSize The field width that the string is to be written in.
 	 */
 	public void print (String text, int fieldSize) {
-		StringBuffer padding = new StringBuffer ();
-
-		for (int cnt = 0 ; cnt < fieldSize - text.length () ; cnt++) {
-			padding.append (' ');
+		synchronized (this) {
+			canvas.print (formatter.clear ().append (text).padRight (fieldSize));
 		}
-		print (text + padding);
 	}
 	/**
 	 * Writes the text representation of an 16-bit integer (a "short") to
@@ -1256,13 +1226,9 @@ public class GraphicsConsole extends JFrame implements MouseListener, MouseMotio
 	 * @param fieldSize The field width that the boolean is to be written in.
 	 */
 	public void print (boolean value, int fieldSize) {
-		String boolStr = String.valueOf (value);
-		StringBuffer padding = new StringBuffer ();
-
-		for (int cnt = 0 ; cnt < fieldSize - boolStr.length () ; cnt++) {
-			padding.append (' ');
+		synchronized (this) {
+			canvas.print (formatter.clear ().append (value ? "true" : "false").padRight (fieldSize));
 		}
-		print (boolStr + padding);
 	}
 	/**
 	 * Write a string to the GraphicsConsole. Adapted from hsa.
@@ -1386,12 +1352,12 @@ public class GraphicsConsole extends JFrame implements MouseListener, MouseMotio
 	 * @return The byte value read from the GraphicsConsole.
 	 */
 	public byte readByte () {
-		String s = readToken ();
+		int length = canvas.readToken ();
 
 		try {
-			return (Byte.parseByte (s));
+			return ((byte) NumberParser.parseLong (canvas.tokenChars, 0, length, Byte.MIN_VALUE, Byte.MAX_VALUE));
 		} catch (NumberFormatException e) {
-			new FatalError ("Unable to convert \"" + s + "\" to a byte", this);
+			new FatalError ("Unable to convert \"" + new String (canvas.tokenChars, 0, length) + "\" to a byte", this);
 			// Never reaches here
 		}
 		return (0);
@@ -1403,15 +1369,12 @@ public class GraphicsConsole extends JFrame implements MouseListener, MouseMotio
 	 * @return The double value read from the GraphicsConsole.
 	 */
 	public double readDouble () {
-		Double d;
-		String s;
+		int length = canvas.readToken ();
 
-		s = readToken ();
 		try {
-			d = Double.valueOf (s);
-			return (d.doubleValue ());
+			return (NumberParser.parseDouble (canvas.tokenChars, 0, length));
 		} catch (NumberFormatException e) {
-			new FatalError ("Unable to convert \"" + s + "\" to a double", this);
+			new FatalError ("Unable to convert \"" + new String (canvas.tokenChars, 0, length) + "\" to a double", this);
 			// Never reaches here
 		}
 		return (0.0);
@@ -1422,15 +1385,12 @@ public class GraphicsConsole extends JFrame implements MouseListener, MouseMotio
 	 * @return The float value read from the GraphicsConsole.
 	 */
 	public float readFloat () {
-		Float f;
-		String s;
+		int length = canvas.readToken ();
 
-		s = readToken ();
 		try {
-			f = Float.valueOf (s);
-			return (f.floatValue ());
+			return (NumberParser.parseFloat (canvas.tokenChars, 0, length));
 		} catch (NumberFormatException e) {
-			new FatalError ("Unable to convert \"" + s + "\" to a float", this);
+			new FatalError ("Unable to convert \"" + new String (canvas.tokenChars, 0, length) + "\" to a float", this);
 			// Never reaches here
 		}
 		return ((float) 0.0);
@@ -1443,12 +1403,12 @@ public class GraphicsConsole extends JFrame implements MouseListener, MouseMotio
 	 * @return The int value read from the GraphicsConsole.
 	 */
 	public int readInt () {
-		String s = readToken ();
+		int length = canvas.readToken ();
 
 		try {
-			return (Integer.parseInt (s));
+			return ((int) NumberParser.parseLong (canvas.tokenChars, 0, length, Integer.MIN_VALUE, Integer.MAX_VALUE));
 		} catch (NumberFormatException e) {
-			new FatalError ("Unable to convert \"" + s + "\" to a int", this);
+			new FatalError ("Unable to convert \"" + new String (canvas.tokenChars, 0, length) + "\" to a int", this);
 			// Never reaches here
 		}
 		return (0);
@@ -1483,12 +1443,12 @@ public class GraphicsConsole extends JFrame implements MouseListener, MouseMotio
 	 * @return The long value read from the GraphicsConsole.
 	 */
 	public long readLong () {
-		String s = readToken ();                        // The token read in
+		int length = canvas.readToken ();                        // Length of the token read in
 
 		try {
-			return (Long.parseLong (s));
+			return (NumberParser.parseLong (canvas.tokenChars, 0, length, Long.MIN_VALUE, Long.MAX_VALUE));
 		} catch (NumberFormatException e) {
-			new FatalError ("Unable to convert \"" + s + "\" to a long", this);
+			new FatalError ("Unable to convert \"" + new String (canvas.tokenChars, 0, length) + "\" to a long", this);
 			// Never reaches here
 		}
 		return (0);
@@ -1500,60 +1460,25 @@ public class GraphicsConsole extends JFrame implements MouseListener, MouseMotio
 	 * @return The short value read from the GraphicsConsole.
 	 */
 	public short readShort () {
-		String s = readToken ();
+		int length = canvas.readToken ();
 
 		try {
-			return (Short.parseShort (s));
+			return ((short) NumberParser.parseLong (canvas.tokenChars, 0, length, Short.MIN_VALUE, Short.MAX_VALUE));
 		} catch (NumberFormatException e) {
-			new FatalError ("Unable to convert \"" + s + "\" to a short", this);
+			new FatalError ("Unable to convert \"" + new String (canvas.tokenChars, 0, length) + "\" to a short", this);
 			// Never reaches here
 		}
 		return (0);
 	}
 	/**
 	 * Reads in input from the keyboard buffer until it hits a
-	 * whitespace, which indicates the end of a token.
+	 * whitespace, which indicates the end of a token. The read methods for
+	 * numbers use the same tokenizer but parse the characters directly.
 	 * @return the string read.
 	 */
 	public String readToken () {
-		char ch;
-
-		StringBuffer sb = new StringBuffer ();
-
-		// Skip white space
-		do
-			ch = canvas.readChar ();
-		while ((ch == ' ') || (ch == '\n') || (ch == '\t'));
-
-		if (ch == '"') {
-			// Read until close quote
-			ch = canvas.readChar ();
-			while (ch != '"') {
-				sb.append (ch);
-				ch = canvas.readChar ();
-				if (ch == '\n') {
-					new FatalError ("No terminating quote for quoted string");
-					// Never reaches here.
-				}
-			}
-
-			// Read the character following the close quote.
-			ch = canvas.readChar ();
-		} else {
-			do {
-				sb.append (ch);
-				ch = canvas.readChar ();
-			} while ((ch != ' ') && (ch != '\n') && (ch != '\t'));
-		}
-
-		// Lastly, skip any whitespace until the end of line
-		while ((ch == ' ') || (ch == '\t'))
-			ch = canvas.readChar ();
-
-		if (ch != '\n')
-			canvas.ungotChar = (int) ch;
-
-		return (new String (sb));
+		int length = canvas.readToken ();
+		return (new String (canvas.tokenChars, 0, length));
 	} 
 	/**
 	 * @return the code for the key currently held down.
@@ -1586,6 +1511,37 @@ public class GraphicsConsole extends JFrame implements MouseListener, MouseMotio
 	public boolean isKeyDown(int key) {
 		return canvas.isKeyDown(key);
 	}
+	/**
+	 * Returns every key and mouse event since the last call, oldest first.
+	 * Unlike getKeyCode(), this never misses a key that was pressed and
+	 * released while the program was busy or sleeping. Never waits.
+	 * <p>
+	 * The latest 1024 events are kept, older ones being thrown away. Call
+	 * this regularly (e.g. once a frame), and once before you start
+	 * listening to throw away old events.
+	 * @return The events, possibly none
+	 */
+	public List<ConsoleEvent> drainEvents() {
+		List<ConsoleEvent> events = new ArrayList<ConsoleEvent>();
+		inputEvents.drainTo(events::add);
+		return events;
+	}
+	/**
+	 * Hands every key and mouse event since the last call to the handler,
+	 * oldest first, without building a list. Never waits.
+	 * @param handler Called once for each event
+	 * @return The number of events handled
+	 */
+	public int drainEvents(Consumer<? super ConsoleEvent> handler) {
+		return inputEvents.drainTo(handler);
+	}
+	/**
+	 * @return The number of events thrown away because drainEvents() was not
+	 * called often enough to keep up
+	 */
+	public long getDroppedEventCount() {
+		return inputEvents.getDropped();
+	}
 
 	// ************************
 	// *** OTHER PUBLIC METHODS
@@ -1599,6 +1555,34 @@ public class GraphicsConsole extends JFrame implements MouseListener, MouseMotio
 		this.dispose ();
 	} 
 	
+	/**
+	 * Returns a copy of everything currently on the drawing area.
+	 * Useful for saving screenshots or comparing frames.
+	 * @return A new image the size of the drawing area
+	 */
+	public BufferedImage getScreenImage() {
+		return canvas.copyBuffer();
+	}
+	/**
+	 * Marks the end of an animation frame. Animations call this once the
+	 * frame is fully drawn, just before pausing. If a frame listener has
+	 * been set it is handed a copy of the drawing area and the frame number.
+	 */
+	public void endFrame() {
+		if (frameListener != null)
+			frameListener.accept(canvas.copyBuffer(), frameNumber);
+		frameNumber++;
+	}
+	/**
+	 * Sets the listener that endFrame() hands each finished frame to, and
+	 * restarts frame numbering at 0. Pass null to stop capturing frames.
+	 * @param listener Receives a copy of each frame and its frame number
+	 */
+	public void setFrameListener(ObjIntConsumer<BufferedImage> listener) {
+		frameListener = listener;
+		frameNumber = 0;
+	}
+	
 	/** 
 	 * A simpler sleep function
 	 * handles the try/catch or "throws InterruptedException" 
@@ -1609,6 +1593,50 @@ public class GraphicsConsole extends JFrame implements MouseListener, MouseMotio
 			Thread.sleep(milliSeconds);
 		} catch (InterruptedException e) {}
 	}
+	/**
+	 * Like Thread.sleep(), but wakes up as soon as a key or mouse event
+	 * matching the wake condition arrives, instead of finishing the whole
+	 * pause first. A matching event already waiting for drainEvents() ends
+	 * the wait straight away. Uses no CPU while waiting. The event is still
+	 * queued for drainEvents().
+	 * <p>
+	 * Example - pause 2 seconds, or until '=' is pressed:
+	 * <pre>
+	 *   c.waitFor(2000, e -&gt; e.getType() == ConsoleEvent.KEY_PRESSED &amp;&amp; e.getKeyCode() == 61);
+	 * </pre>
+	 * The condition is checked on the event dispatch thread as events
+	 * arrive, so keep it quick. Only one thread may wait at a time.
+	 * 
+	 * @param milliSeconds Longest time to wait
+	 * @param wakeCondition Which events end the wait, or null to wait for the full time
+	 * @return True if a matching event ended the wait, false if the time ran out
+	 * @throws InterruptedException If the thread is interrupted, as Thread.sleep() does.
+	 *         The interrupted status is cleared.
+	 * @throws IllegalStateException If another thread is already waiting
+	 */
+	public boolean waitFor(long milliSeconds, Predicate<? super ConsoleEvent> wakeCondition)
+			throws InterruptedException {
+		if (Thread.interrupted())
+			throw new InterruptedException();
+		long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(milliSeconds);
+		Waiter w = new Waiter(wakeCondition);
+		if (!waiter.compareAndSet(null, w))
+			throw new IllegalStateException("Another thread is already in waitFor()");
+		try {
+			// Registered first, so an event posted from here on is seen by postEvent()
+			if (wakeCondition != null && inputEvents.contains(wakeCondition))
+				return true;
+			long remaining;
+			while (!w.woken && (remaining = deadline - System.nanoTime()) > 0) {
+				LockSupport.parkNanos(this, remaining);
+				if (Thread.interrupted())
+					throw new InterruptedException();
+			}
+			return w.woken;
+		} finally {
+			waiter.compareAndSet(w, null);
+		}
+	}
 
 	// **********************
 	// *** MOUSE METHODS
@@ -1648,6 +1676,11 @@ public class GraphicsConsole extends JFrame implements MouseListener, MouseMotio
 	 * enableMouseMotion() is by far the most demanding in terms of overhead,
 	 * so don't invoke this method unless it is absolutely necessary.
 	 * 
+	 * enableSampledMouseMotion(): Same as enableMouseMotion(), except move and
+	 * drag events only overwrite the latest position (plus an optional trail
+	 * of recent positions) rather than each being queued for drainEvents().
+	 * Much cheaper when all you need is to follow the pointer once a frame.
+	 * 
 	 * disableMouse... methods are provided to avoid mouse event overhead
 	 * when they are no longer needed.
 	 */
@@ -1658,6 +1691,7 @@ public class GraphicsConsole extends JFrame implements MouseListener, MouseMotio
 
 	public void disableMouseMotion() {
 		canvas.removeMouseMotionListener(this);
+		sampledMouseMotion = false;
 	}
 
 	public void disableMouseWheel() {
@@ -1674,9 +1708,47 @@ public class GraphicsConsole extends JFrame implements MouseListener, MouseMotio
 	 * Adds MouseMotionListener to the GraphicsConsole
 	 */
 	public void enableMouseMotion() {
+		canvas.removeMouseMotionListener(this);
+		sampledMouseMotion = false;
 		canvas.addMouseMotionListener(this);
 	}
 
+	/**
+	 * Adds MouseMotionListener to the GraphicsConsole in sampled mode: a much
+	 * cheaper way to follow the pointer than enableMouseMotion().
+	 * <p>
+	 * Move and drag events only update the latest position (and the trail),
+	 * and are not queued for drainEvents(). getMouseX(), getMouseY() and
+	 * getInputSnapshot() see the latest position once per screen refresh.
+	 * The snapshot also holds the last trailLength positions, so the path
+	 * of a fast moving pointer is not lost between frames.
+	 * <p>
+	 * See getMouseMotionEventRate() for how many motion events are arriving.
+	 * @param trailLength Number of recent positions to keep, 0 for none
+	 */
+	public void enableSampledMouseMotion(int trailLength) {
+		canvas.removeMouseMotionListener(this);
+		final int length = Math.max(0, trailLength);
+		// The trail belongs to the event dispatch thread, so resize it there
+		SwingUtilities.invokeLater(() -> {
+			trailX = length == 0 ? NO_TRAIL : new int [length];
+			trailY = length == 0 ? NO_TRAIL : new int [length];
+			trailStart = 0;
+			trailCount = 0;
+		});
+		sampledMouseMotion = true;
+		canvas.addMouseMotionListener(this);
+	}
+
+	/**
+	 * Returns how many mouse move and drag events arrived per second, measured
+	 * over the last second. Handy to see how much motion tracking is costing.
+	 * @return Mouse motion events per second
+	 */
+	public double getMouseMotionEventRate() {
+		return mouseMotionEventRate;
+	}
+
 	/**
 	 * Adds MouseWheelListener to the GraphicsConsole
 	 */
@@ -1692,11 +1764,7 @@ public class GraphicsConsole extends JFrame implements MouseListener, MouseMotio
 	 * @return T/F if that button has been pressed.
 	 */
 	public boolean getMouseButton(int buttonNum) {
-
-		if (( buttonNum >= 0)&& (buttonNum < mouseButton.length))
-			return mouseButton[ buttonNum ];
-		else
-			return false;
+		return inputSnapshot.getButton(buttonNum);
 	}
 
 	/**
@@ -1710,9 +1778,7 @@ public class GraphicsConsole extends JFrame implements MouseListener, MouseMotio
 	 * @return number of clicks
 	 */
 	public int getMouseClick() {
-		int toReturn = mouseClick;
-		mouseClick = 0;
-		return toReturn;
+		return mouseClick.getAndSet(0);
 	}
 
 	/**
@@ -1722,9 +1788,7 @@ public class GraphicsConsole extends JFrame implements MouseListener, MouseMotio
 	 * @return number of "clicks" that mouse wheel was rotated. 
 	 */
 	public int getMouseWheelRotation() {
-		int toReturn = mouseWheelRotation;
-		mouseWheelRotation = 0;
-		return toReturn;
+		return mouseWheelRotation.getAndSet(0);
 	}
 
 	/**
@@ -1734,9 +1798,7 @@ public class GraphicsConsole extends JFrame implements MouseListener, MouseMotio
 	 * of mouse wheel rotation, and on the wheel scrolling settings of the native platform
 	 */
 	public int getMouseWheelUnitsToScroll() {
-		int toReturn = mouseWheelUnitsToScroll;
-		mouseWheelUnitsToScroll = 0;
-		return toReturn;
+		return mouseWheelUnitsToScroll.getAndSet(0);
 	}
 
 	/**
@@ -1745,7 +1807,7 @@ public class GraphicsConsole extends JFrame implements MouseListener, MouseMotio
 	 * @return x coordinate of mouse pointer position
 	 */
 	public int getMouseX() {
-		return mouseX;
+		return inputSnapshot.getX();
 	}
 
 	/**
@@ -1754,7 +1816,17 @@ public class GraphicsConsole extends JFrame implements MouseListener, MouseMotio
 	 * @return y coordinate of mouse pointer position
 	 */
 	public int getMouseY() {
-		return mouseY;
+		return inputSnapshot.getY();
+	}
+
+	/**
+	 * Returns the mouse position and buttons as of the last screen refresh,
+	 * all taken at the same moment. Reading everything for a frame from one
+	 * snapshot avoids the position changing half way through the frame.
+	 * @return the latest snapshot of the mouse
+	 */
+	public InputSnapshot getInputSnapshot() {
+		return inputSnapshot;
 	}
  
 	/* *********************************************
@@ -1763,34 +1835,36 @@ public class GraphicsConsole extends JFrame implements MouseListener, MouseMotio
 	 * (i.e., don't try to invoke these directly!)
 	 * *********************************************/
 	public void mouseClicked(MouseEvent e) {
-		mouseX = e.getX();
-		mouseY = e.getY();
-		mouseClick = e.getClickCount();
+		moveMouse(e);
+		mouseClick.set(e.getClickCount());
+		postEvent(ConsoleEvent.mouse(ConsoleEvent.MOUSE_CLICKED, e.getX(), e.getY(), buttonNumber(e), e.getClickCount()));
 	}
 
 	public void mouseDragged(MouseEvent e) {
-		mouseX = e.getX();
-		mouseY = e.getY();
+		moveMouse(e);
+		if (sampleMouseMotion())
+			return;
+		postEvent(ConsoleEvent.mouse(ConsoleEvent.MOUSE_DRAGGED, e.getX(), e.getY(), -1, 0));
 	}
 
 	public void mouseEntered(MouseEvent e) {
-		mouseX = e.getX();
-		mouseY = e.getY();
+		moveMouse(e);
 	}
 
 	public void mouseExited(MouseEvent e) {
-		mouseX = e.getX();
-		mouseY = e.getY();
+		moveMouse(e);
 	}
 
 	public void mouseMoved(MouseEvent e) {
-		mouseX = e.getX();
-		mouseY = e.getY();
+		moveMouse(e);
+		if (sampleMouseMotion())
+			return;
+		postEvent(ConsoleEvent.mouse(ConsoleEvent.MOUSE_MOVED, e.getX(), e.getY(), -1, 0));
 	}
 
 	public void mousePressed(MouseEvent e) {
-		mouseX = e.getX();
-		mouseY = e.getY();
+		moveMouse(e);
+		postEvent(ConsoleEvent.mouse(ConsoleEvent.MOUSE_PRESSED, e.getX(), e.getY(), buttonNumber(e), 0));
 		if (e.getButton() == MouseEvent.BUTTON1)
 			mouseButton[ 0 ] = true;
 
@@ -1803,8 +1877,8 @@ public class GraphicsConsole extends JFrame implements MouseListener, MouseMotio
 	}
 
 	public void mouseReleased(MouseEvent e) {
-		mouseX = e.getX();
-		mouseY = e.getY();
+		moveMouse(e);
+		postEvent(ConsoleEvent.mouse(ConsoleEvent.MOUSE_RELEASED, e.getX(), e.getY(), buttonNumber(e), 0));
 
 		if (e.getButton() == MouseEvent.BUTTON1)
 			mouseButton[ 0 ] = false;
@@ -1818,17 +1892,95 @@ public class GraphicsConsole extends JFrame implements MouseListener, MouseMotio
 	}
 
 	public void mouseWheelMoved(MouseWheelEvent e) {
-		mouseX = e.getX();
-		mouseY = e.getY();
+		moveMouse(e);
 
-		mouseWheelRotation += e.getWheelRotation();
-		mouseWheelUnitsToScroll += e.getUnitsToScroll();
+		mouseWheelRotation.addAndGet(e.getWheelRotation());
+		mouseWheelUnitsToScroll.addAndGet(e.getUnitsToScroll());
+		postEvent(ConsoleEvent.mouse(ConsoleEvent.MOUSE_WHEEL, e.getX(), e.getY(), -1, e.getWheelRotation()));
 	}
 
 	// **********************
 	// *** NON-PUBLIC METHODS
 	// **********************
 
+	/**
+	 * Records the mouse position of an event. Only called on the event dispatch thread.
+	 */
+	private void moveMouse(MouseEvent e) {
+		mouseX = e.getX();
+		mouseY = e.getY();
+		mouseChanged = true;
+	}
+	/**
+	 * Counts a motion event and, in sampled mode, adds the new position to the
+	 * trail. Only called on the event dispatch thread.
+	 * @return True if in sampled mode, meaning the event should not be queued
+	 */
+	private boolean sampleMouseMotion() {
+		motionEventCount++;
+		if (!sampledMouseMotion)
+			return false;
+		if (trailX.length > 0) {
+			int slot = (trailStart + trailCount) % trailX.length;
+			trailX[ slot ] = mouseX;
+			trailY[ slot ] = mouseY;
+			if (trailCount < trailX.length)
+				trailCount++;
+			else
+				trailStart = (trailStart + 1) % trailX.length;
+		}
+		return true;
+	}
+	/**
+	 * Publishes the live mouse state as a new snapshot if it has changed since
+	 * the last one, and updates the motion event rate once a second. Called
+	 * once per screen refresh on the event dispatch thread.
+	 */
+	void publishInputSnapshot() {
+		long now = System.nanoTime();
+		if (now - motionRateWindowStart >= 1000000000L) {
+			mouseMotionEventRate = motionEventCount * 1e9 / (now - motionRateWindowStart);
+			motionEventCount = 0;
+			motionRateWindowStart = now;
+		}
+		if (mouseChanged) {
+			mouseChanged = false;
+			int[] x = NO_TRAIL, y = NO_TRAIL;
+			if (sampledMouseMotion && trailCount > 0) {
+				x = new int [trailCount];
+				y = new int [trailCount];
+				for (int i = 0; i < trailCount; i++) {
+					x[ i ] = trailX[ (trailStart + i) % trailX.length ];
+					y[ i ] = trailY[ (trailStart + i) % trailY.length ];
+				}
+			}
+			inputSnapshot = new InputSnapshot(mouseX, mouseY, mouseButton, x, y, now);
+		}
+	}
+	/**
+	 * Queues an event for drainEvents(). Only called on the event dispatch thread.
+	 */
+	void postEvent(ConsoleEvent e) {
+		inputEvents.offer(e);
+		Waiter w = waiter.get();
+		if (w != null && w.wakeCondition != null && w.wakeCondition.test(e)) {
+			w.woken = true;
+			LockSupport.unpark(w.thread);
+		}
+	}
+	/**
+	 * Converts the AWT button of a mouse event to 0, 1 or 2 as used by getMouseButton().
+	 */
+	private static int buttonNumber(MouseEvent e) {
+		if (e.getButton() == MouseEvent.BUTTON1)
+			return 0;
+		else if (e.getButton() == MouseEvent.BUTTON2)
+			return 1;
+		else if (e.getButton() == MouseEvent.BUTTON3)
+			return 2;
+		return -1;
+	}
+
 	private void makeGUI (int width, int height, int fontSize, String title) { 
 		this.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
 		this.setResizable(false);		
@@ -0,0 +1,54 @@
+package com.ekakii729.graphicsLibrary;
+
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.Image;
+import java.awt.image.BufferedImage;
+import java.util.List;
+import java.util.function.ObjIntConsumer;
+import java.util.function.Predicate;
+
+/**
+ * The drawing, frame and input methods that GraphicsConsole and
+ * OffscreenConsole share. Code written against this interface draws the
+ * same pixels in a window or off screen, so an animation can be checked
+ * frame by frame on a machine with no display.
+ * <p>
+ * See GraphicsConsole for what each method does.
+ * <p>
+ * @author Abhay Manoj
+ * @version 3.0
+ */
+public interface GraphicsSurface {
+
+	void clear();
+	void clearRect(int x, int y, int width, int height);
+	void setColor(Color c);
+	void setBackgroundColor(Color c);
+	void setFont(Font f);
+	void setStroke(int strokeSize);
+	void setAntiAlias(boolean onOff);
+
+	void drawLine(int x1, int y1, int x2, int y2);
+	void drawLines(int[] x1, int[] y1, int[] x2, int[] y2, int n);
+	void drawRect(int x, int y, int width, int height);
+	void fillRect(int x, int y, int width, int height);
+	void fillRoundRect(int x, int y, int width, int height, int xRadius, int yRadius);
+	void drawOval(int x, int y, int width, int height);
+	void fillOval(int x, int y, int width, int height);
+	void drawPolygon(int[] x, int[] y, int n);
+	void fillPolygon(int[] x, int[] y, int n);
+	void drawStar(int x, int y, int width, int height);
+	void fillStar(int x, int y, int width, int height);
+	void drawString(String str, int x, int y);
+	void drawImage(Image img, int x, int y);
+	void drawImage(Image img, int x, int y, int width, int height);
+
+	BufferedImage getScreenImage();
+	void endFrame();
+	void setFrameListener(ObjIntConsumer<BufferedImage> listener);
+
+	int getKeyCode();
+	List<ConsoleEvent> drainEvents();
+	boolean waitFor(long milliSeconds, Predicate<? super ConsoleEvent> wakeCondition) throws InterruptedException;
+}
@@ -0,0 +1,83 @@
+package com.ekakii729.graphicsLibrary;
+
+/**
+ * The state of the mouse as of one screen refresh. The GraphicsConsole builds
+ * a new one on the event dispatch thread each time the screen is refreshed
+ * (60 times a second) and the mouse has changed, then swaps it in with a
+ * single volatile write. A snapshot never changes, so everything read from
+ * one snapshot is consistent: the position and buttons all belong to the
+ * same moment.
+ * <p>
+ * In sampled mouse motion mode (see GraphicsConsole.enableSampledMouseMotion)
+ * a snapshot also carries a trail of the most recent pointer positions,
+ * oldest first, so a frame can draw the path the pointer took between frames.
+ * <p>
+ * Get the latest one with GraphicsConsole.getInputSnapshot().
+ * <p>
+ * @author Abhay Manoj
+ * @version 3.0
+ */
+public class InputSnapshot {
+
+	private final int x, y;
+	private final boolean[] buttons;
+	private final int[] trailX, trailY;
+	private final long time;
+
+	InputSnapshot(int x, int y, boolean[] buttons, int[] trailX, int[] trailY, long time) {
+		this.x = x;
+		this.y = y;
+		this.buttons = buttons.clone();
+		this.trailX = trailX;
+		this.trailY = trailY;
+		this.time = time;
+	}
+
+	/**
+	 * @return The X coordinate of the mouse pointer within the drawing area
+	 */
+	public int getX() {
+		return x;
+	}
+	/**
+	 * @return The Y coordinate of the mouse pointer within the drawing area
+	 */
+	public int getY() {
+		return y;
+	}
+	/**
+	 * @param buttonNum mouse button number (0,1,2)
+	 * @return T/F if that button was held down
+	 */
+	public boolean getButton(int buttonNum) {
+		if ((buttonNum >= 0) && (buttonNum < buttons.length))
+			return buttons[ buttonNum ];
+		return false;
+	}
+	/**
+	 * @return Number of positions in the pointer trail (0 unless sampled mouse motion is on)
+	 */
+	public int getTrailLength() {
+		return trailX.length;
+	}
+	/**
+	 * @param i Position in the trail, 0 is the oldest
+	 * @return X coordinate of that trail position
+	 */
+	public int getTrailX(int i) {
+		return trailX[ i ];
+	}
+	/**
+	 * @param i Position in the trail, 0 is the oldest
+	 * @return Y coordinate of that trail position
+	 */
+	public int getTrailY(int i) {
+		return trailY[ i ];
+	}
+	/**
+	 * @return When this snapshot was taken, from System.nanoTime()
+	 */
+	public long getTime() {
+		return time;
+	}
+}
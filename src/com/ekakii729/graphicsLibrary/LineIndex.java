@@ -0,0 +1,172 @@
+package com.ekakii729.graphicsLibrary;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+
+/**
+ * The byte offset of the start of every line of a file, for
+ * TextInputFile.seekLine. Lines end at "\n", "\r\n" or a lone "\r", as they
+ * do when the file is read.
+ * <p>
+ * The index remembers how much of the file it has covered, so a file that
+ * has only been appended to is indexed from where the last pass stopped.
+ * To tell an appended file from a changed one, it keeps a checksum of the
+ * last few kilobytes it covered; if those bytes are no longer the same (or
+ * the file is shorter) the whole file is indexed again.
+ * <p>
+ * An index can be saved to and loaded from a small sidecar file, so a big
+ * file is only indexed once.
+ * <p>
+ * @author Abhay Manoj
+ * @version 3.0
+ */
+class LineIndex {
+
+	private static final int MAGIC = 0x4C494458;    // "LIDX"
+	private static final int CHECKED_TAIL_SIZE = 4096;
+	private static final long SCAN_WINDOW_SIZE = 1L << 30;
+
+	/** Where each line starts; the last entry may be the end of the file. **/
+	private long[] starts = new long [1024];
+	private int count = 1;
+	/** Bytes of the file covered so far. **/
+	private long length = 0;
+	/** Set if the last byte covered was '\r', so a '\n' next belongs to the same line end. **/
+	private boolean afterCR = false;
+	private long tailChecksum = 0;
+
+	/**
+	 * @return The number of lines, counting a last line with no line ending
+	 */
+	int getLineCount() {
+		return starts [count - 1] == length ? count - 1 : count;
+	}
+
+	/**
+	 * @return Where the line starts, or the end of the file for the line
+	 *         after the last one
+	 */
+	long getLineStart(int line) {
+		return line < count ? starts [line] : length;
+	}
+
+	/**
+	 * Brings the index up to the end of the file.
+	 * @return False if nothing new was indexed
+	 */
+	boolean update(FileChannel channel) throws IOException {
+		long size = channel.size();
+		if (size < length || checksum(channel, length) != tailChecksum)
+			clear();
+		else if (size == length)
+			return false;
+		for (long pos = length ; pos < size ; pos += SCAN_WINDOW_SIZE)
+			scan(channel.map(FileChannel.MapMode.READ_ONLY, pos, Math.min(size - pos, SCAN_WINDOW_SIZE)), pos);
+		length = size;
+		tailChecksum = checksum(channel, length);
+		return true;
+	}
+
+	/**
+	 * Loads an index saved by save.
+	 * @return The index, or null if there is no usable index in the file
+	 */
+	static LineIndex load(File sidecar) {
+		if (!sidecar.isFile())
+			return null;
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(sidecar)))) {
+			if (in.readInt() != MAGIC)
+				return null;
+			LineIndex index = new LineIndex();
+			index.length = in.readLong();
+			index.afterCR = in.readBoolean();
+			index.tailChecksum = in.readLong();
+			index.count = in.readInt();
+			if (index.length < 0 || index.count < 1)
+				return null;
+			index.starts = new long [index.count];
+			for (int i = 0 ; i < index.count ; i++)
+				index.starts [i] = in.readLong();
+			return index;
+		} catch (IOException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * Saves the index. The sidecar is only a cache, so failing to write it
+	 * (in a read only folder, say) is not an error.
+	 */
+	void save(File sidecar) {
+		try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(sidecar)))) {
+			out.writeInt(MAGIC);
+			out.writeLong(length);
+			out.writeBoolean(afterCR);
+			out.writeLong(tailChecksum);
+			out.writeInt(count);
+			for (int i = 0 ; i < count ; i++)
+				out.writeLong(starts [i]);
+		} catch (IOException e) {
+			sidecar.delete();
+		}
+	}
+
+	private void clear() {
+		starts [0] = 0;
+		count = 1;
+		length = 0;
+		afterCR = false;
+	}
+
+	/**
+	 * Adds the line starts in a window of the file starting at offset.
+	 */
+	private void scan(MappedByteBuffer bytes, long offset) {
+		int limit = bytes.limit();
+		for (int i = 0 ; i < limit ; i++) {
+			byte b = bytes.get(i);
+			if (b == '\n') {
+				if (afterCR)
+					// The "\n" of "\r\n": the line starts after it instead
+					starts [count - 1] = offset + i + 1;
+				else
+					addStart(offset + i + 1);
+			} else if (b == '\r') {
+				addStart(offset + i + 1);
+			}
+			afterCR = b == '\r';
+		}
+	}
+
+	private void addStart(long start) {
+		if (count == starts.length)
+			starts = Arrays.copyOf(starts, count * 2);
+		starts [count++] = start;
+	}
+
+	/**
+	 * @return A checksum of the last few kilobytes before end
+	 */
+	private static long checksum(FileChannel channel, long end) throws IOException {
+		long start = Math.max(0, end - CHECKED_TAIL_SIZE);
+		ByteBuffer tail = ByteBuffer.allocate((int) (end - start));
+		while (tail.hasRemaining())
+			if (channel.read(tail, start + tail.position()) == -1)
+				return -1;
+		tail.flip();
+		CRC32 crc = new CRC32();
+		crc.update(tail);
+		return crc.getValue();
+	}
+}
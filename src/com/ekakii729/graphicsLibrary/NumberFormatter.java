@@ -0,0 +1,256 @@
+package com.ekakii729.graphicsLibrary;
+
+import java.text.DecimalFormat;
+import java.text.DecimalFormatSymbols;
+
+/**
+ * Formats numbers for GraphicsConsole.print into a reusable character buffer,
+ * so printing a number does not create a String, a StringBuffer for the
+ * padding, and a DecimalFormat each time. The buffer is handed straight to
+ * ConsoleCanvas.print as a CharSequence.
+ * <p>
+ * The output is the same as the old hsa code: Integer/Long.toString for
+ * whole numbers and DecimalFormat patterns (with the default locale's
+ * symbols) for doubles. DecimalFormat rounds half-even on the exact binary
+ * value of the double; the digits here are worked out from the double scaled
+ * up to a whole number, which is exact as long as the scaled value is well
+ * below 2^53 and not too close to a half. The rare number that fails those
+ * checks (or a field so wide that the scaled value is too big) is still
+ * formatted by DecimalFormat.
+ * <p>
+ * Not thread safe; GraphicsConsole only uses it while holding its own lock.
+ * <p>
+ * @author Abhay Manoj
+ * @version 3.0
+ */
+class NumberFormatter implements CharSequence {
+
+	private static final double[] POWERS_OF_TEN = {
+		1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+		1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18
+	};
+	/** Scaled values below this are off by well under TIE_MARGIN from the exact product. **/
+	private static final double EXACT_LIMIT = 0x1p40;
+	private static final double TIE_MARGIN = 1e-3;
+
+	private char[] chars = new char [64];
+	private int length = 0;
+	private final char zeroDigit, decimalSeparator;
+	private final String negativePrefix;
+
+	NumberFormatter() {
+		DecimalFormat format = new DecimalFormat ("0");
+		DecimalFormatSymbols symbols = format.getDecimalFormatSymbols ();
+		zeroDigit = symbols.getZeroDigit ();
+		decimalSeparator = symbols.getDecimalSeparator ();
+		negativePrefix = format.getNegativePrefix ();
+	}
+
+	// ***** CharSequence *****
+
+	public int length() {
+		return length;
+	}
+
+	public char charAt(int index) {
+		return chars [index];
+	}
+
+	public CharSequence subSequence(int start, int end) {
+		return new String (chars, start, end - start);
+	}
+
+	public String toString() {
+		return new String (chars, 0, length);
+	}
+
+	// ***** Building *****
+
+	NumberFormatter clear() {
+		length = 0;
+		return this;
+	}
+
+	NumberFormatter append(char ch) {
+		ensureRoom (1);
+		chars [length++] = ch;
+		return this;
+	}
+
+	NumberFormatter append(String text) {
+		ensureRoom (text.length ());
+		text.getChars (0, text.length (), chars, length);
+		length += text.length ();
+		return this;
+	}
+
+	/**
+	 * Appends a whole number the way Long.toString writes it.
+	 */
+	NumberFormatter append(long number) {
+		// Work with the negative value so Long.MIN_VALUE needs no special case
+		if (number < 0)
+			append ('-');
+		else
+			number = -number;
+		int start = length;
+		do {
+			append ((char) ('0' - (number % 10)));
+			number /= 10;
+		} while (number != 0);
+		reverse (start, length);
+		return this;
+	}
+
+	/**
+	 * Pads with spaces on the left (right justifies) to the field size.
+	 */
+	NumberFormatter padLeft(int fieldSize) {
+		int spaces = fieldSize - length;
+		if (spaces > 0) {
+			ensureRoom (spaces);
+			System.arraycopy (chars, 0, chars, spaces, length);
+			for (int i = 0 ; i < spaces ; i++)
+				chars [i] = ' ';
+			length += spaces;
+		}
+		return this;
+	}
+
+	/**
+	 * Pads with spaces on the right (left justifies) to the field size.
+	 */
+	NumberFormatter padRight(int fieldSize) {
+		while (length < fieldSize)
+			append (' ');
+		return this;
+	}
+
+	/**
+	 * Appends a double with as many integer digits as it needs and as many
+	 * decimal places as still fit in the field, as GraphicsConsole.print
+	 * (double, int) has always done. Does not pad.
+	 */
+	NumberFormatter appendFitted(double number, int fieldSize) {
+		double posValue = Math.abs (number);
+		int placesRemaining = fieldSize;
+		int integerDigits = 0;
+
+		if (number < 0)
+			placesRemaining--;                 // Space for the minus sign
+		for (int digits = 1 ; digits <= 8 ; digits++) {
+			if (posValue < POWERS_OF_TEN [digits]) {
+				integerDigits = digits;
+				break;
+			}
+		}
+		if (integerDigits == 0)
+			// We're using scientific notation
+			return append (String.valueOf (number));
+
+		// Pattern is integerDigits zeros, then a decimal point if there's room,
+		// then a '#' for each remaining place
+		placesRemaining -= integerDigits;
+		boolean point = placesRemaining > 0;
+		int fractionDigits = point ? placesRemaining - 1 : 0;
+		if (!appendDecimal (number, integerDigits, fractionDigits, point, true))
+			appendDecimalFormat (number, integerDigits, fractionDigits, point, true);
+		return this;
+	}
+
+	/**
+	 * Appends a double with a fixed number of decimal places, as
+	 * GraphicsConsole.print (double, int, int) has always done. Does not pad.
+	 */
+	NumberFormatter appendFixed(double number, int decimalPlaces) {
+		if (Math.abs (number) >= 100000000.0)
+			// We're using scientific notation
+			return append (String.valueOf (number));
+		if (!appendDecimal (number, 1, decimalPlaces, true, false))
+			appendDecimalFormat (number, 1, decimalPlaces, true, false);
+		return this;
+	}
+
+	/**
+	 * Appends what new DecimalFormat (pattern).format (number) gives, where the
+	 * pattern is minIntegerDigits zeros, a decimal point if point is set, and
+	 * fractionDigits '#'s (trimFraction) or '0's.
+	 * @return false, having appended nothing, if the digits can't be worked
+	 *         out exactly without DecimalFormat
+	 */
+	private boolean appendDecimal(double number, int minIntegerDigits, int fractionDigits,
+			boolean point, boolean trimFraction) {
+		if (Double.isNaN (number) || fractionDigits >= POWERS_OF_TEN.length)
+			return false;
+		double scaled = Math.abs (number) * POWERS_OF_TEN [fractionDigits];
+		if (!(scaled < EXACT_LIMIT))
+			return false;
+		double floor = Math.floor (scaled);
+		double rest = scaled - floor;
+		if (Math.abs (rest - 0.5) < TIE_MARGIN)
+			return false;
+		long digits = (long) floor + (rest > 0.5 ? 1 : 0);
+		long unit = (long) POWERS_OF_TEN [fractionDigits];
+		long integerPart = digits / unit;
+		long fraction = digits % unit;
+		int shownDigits = fractionDigits;
+		if (trimFraction) {
+			while (shownDigits > 0 && fraction % 10 == 0) {
+				fraction /= 10;
+				shownDigits--;
+			}
+		}
+
+		// DecimalFormat keeps the sign of negative numbers that round to zero, and of -0.0
+		if (Double.doubleToRawLongBits (number) < 0)
+			append (negativePrefix);
+		appendDigits (integerPart, minIntegerDigits);
+		if (shownDigits > 0 || (point && fractionDigits == 0))
+			append (decimalSeparator);
+		if (shownDigits > 0)
+			appendDigits (fraction, shownDigits);
+		return true;
+	}
+
+	private void appendDecimalFormat(double number, int minIntegerDigits, int fractionDigits,
+			boolean point, boolean trimFraction) {
+		StringBuilder format = new StringBuilder ();
+		for (int cnt = 0 ; cnt < minIntegerDigits ; cnt++)
+			format.append ('0');
+		if (point)
+			format.append ('.');
+		for (int cnt = 0 ; cnt < fractionDigits ; cnt++)
+			format.append (trimFraction ? '#' : '0');
+		append (new DecimalFormat (format.toString ()).format (number));
+	}
+
+	/**
+	 * Appends a non-negative number in the locale's digits, with leading
+	 * zeros to make up at least minDigits digits.
+	 */
+	private void appendDigits(long number, int minDigits) {
+		int start = length;
+		do {
+			append ((char) (zeroDigit + (int) (number % 10)));
+			number /= 10;
+			minDigits--;
+		} while (number != 0 || minDigits > 0);
+		reverse (start, length);
+	}
+
+	private void reverse(int start, int end) {
+		for (end-- ; start < end ; start++, end--) {
+			char ch = chars [start];
+			chars [start] = chars [end];
+			chars [end] = ch;
+		}
+	}
+
+	private void ensureRoom(int needed) {
+		if (length + needed > chars.length) {
+			char[] bigger = new char [Math.max (chars.length * 2, length + needed)];
+			System.arraycopy (chars, 0, bigger, 0, length);
+			chars = bigger;
+		}
+	}
+}
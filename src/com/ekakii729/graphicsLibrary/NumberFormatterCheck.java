@@ -0,0 +1,185 @@
+package com.ekakii729.graphicsLibrary;
+
+import java.text.DecimalFormat;
+import java.util.Locale;
+import java.util.SplittableRandom;
+
+/**
+ * Randomised check that NumberFormatter prints exactly what the old hsa
+ * code did with DecimalFormat patterns and String padding, for doubles,
+ * floats and whole numbers, with random field sizes and decimal places,
+ * in several locales. Numbers are picked across every magnitude, with
+ * extra ones placed right on and next to rounding ties, where a fast path
+ * is most likely to go wrong.
+ * <p>
+ * Run with "java com.ekakii729.graphicsLibrary.NumberFormatterCheck
+ * [count [seed]]". Prints the first few mismatches and exits with status 1
+ * if there are any.
+ * <p>
+ * @author Abhay Manoj
+ * @version 3.0
+ */
+class NumberFormatterCheck {
+
+	private static final Locale[] LOCALES = {
+		Locale.US, Locale.GERMANY, Locale.FRANCE, Locale.forLanguageTag("ar-EG"), Locale.forLanguageTag("hi-IN-u-nu-deva")
+	};
+	private static final int MAX_REPORTED = 20;
+
+	private final SplittableRandom random;
+	private final NumberFormatter formatter = new NumberFormatter();
+	private int mismatches = 0;
+
+	private NumberFormatterCheck(SplittableRandom random) {
+		this.random = random;
+	}
+
+	public static void main(String[] args) {
+		int count = args.length > 0 ? Integer.parseInt(args [0]) : 200000;
+		long seed = args.length > 1 ? Long.parseLong(args [1]) : new SplittableRandom().nextLong();
+		System.out.println("Seed " + seed);
+		SplittableRandom random = new SplittableRandom(seed);
+		Locale original = Locale.getDefault();
+		int mismatches = 0;
+		try {
+			for (Locale locale : LOCALES) {
+				Locale.setDefault(locale);
+				NumberFormatterCheck check = new NumberFormatterCheck(random.split());
+				check.run(count);
+				System.out.println(locale + ": " + check.mismatches + " mismatches in " + count + " numbers");
+				mismatches += check.mismatches;
+			}
+		} finally {
+			Locale.setDefault(original);
+		}
+		System.exit(mismatches == 0 ? 0 : 1);
+	}
+
+	private void run(int count) {
+		for (int i = 0 ; i < count ; i++) {
+			double number = randomDouble();
+			int fieldSize = random.nextInt(24);
+			int decimalPlaces = random.nextInt(19);
+			compare("fitted " + number + " in " + fieldSize, oldFitted(number, fieldSize),
+					formatter.clear().appendFitted(number, fieldSize).padLeft(fieldSize));
+			compare("fixed " + number + " to " + decimalPlaces + " in " + fieldSize,
+					oldFixed(number, fieldSize, decimalPlaces),
+					formatter.clear().appendFixed(number, decimalPlaces).padLeft(fieldSize));
+			float single = (float) number;
+			compare("fitted float " + single + " in " + fieldSize, oldFitted(single, fieldSize),
+					formatter.clear().appendFitted(single, fieldSize).padLeft(fieldSize));
+			long whole = randomLong();
+			compare("long " + whole + " in " + fieldSize, pad(Long.toString(whole), fieldSize),
+					formatter.clear().append(whole).padLeft(fieldSize));
+			compare("int " + (int) whole + " in " + fieldSize, pad(Integer.toString((int) whole), fieldSize),
+					formatter.clear().append((int) whole).padLeft(fieldSize));
+		}
+	}
+
+	private void compare(String what, String expected, CharSequence actual) {
+		if (expected.contentEquals(actual))
+			return;
+		if (++mismatches <= MAX_REPORTED)
+			System.out.println("  " + Locale.getDefault() + " " + what + ": expected \"" + expected
+					+ "\" but got \"" + actual + "\"");
+	}
+
+	/**
+	 * @return A double of any magnitude, often a whole number or a value on
+	 *         or next to a tie when rounded to a few decimal places
+	 */
+	private double randomDouble() {
+		double number;
+		switch (random.nextInt(8)) {
+		case 0:
+			number = Double.longBitsToDouble(random.nextLong());
+			break;
+		case 1:
+			number = random.nextInt(1000000);
+			break;
+		case 2:
+		case 3: {
+			// Exactly halfway at some number of places, or one ulp either side
+			double unit = Math.pow(10, -random.nextInt(10));
+			number = (Math.floor(random.nextDouble() * 1e6) + 0.5) * unit;
+			int nudge = random.nextInt(3) - 1;
+			if (nudge < 0)
+				number = Math.nextDown(number);
+			else if (nudge > 0)
+				number = Math.nextUp(number);
+			break;
+		}
+		case 4: {
+			double[] special = {
+				0.0, -0.0, Double.NaN, Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY, Double.MIN_VALUE,
+				Double.MAX_VALUE, 99999999.99999999, 100000000.0, 9.9999999, 0.1, 0.7, 1e-7
+			};
+			number = special [random.nextInt(special.length)];
+			break;
+		}
+		default:
+			number = random.nextDouble() * Math.pow(10, random.nextInt(-12, 10));
+			break;
+		}
+		return random.nextBoolean() ? -number : number;
+	}
+
+	private long randomLong() {
+		switch (random.nextInt(4)) {
+		case 0:
+			return random.nextLong();
+		case 1:
+			return random.nextBoolean() ? Long.MIN_VALUE : Long.MAX_VALUE;
+		default:
+			return random.nextInt(-100000, 100000);
+		}
+	}
+
+	// ***** The old hsa code, kept here as the reference *****
+
+	private static String oldFitted(double number, int fieldSize) {
+		double posValue = Math.abs(number);
+		int placesRemaining = fieldSize;
+		String format = null, numStr;
+
+		if (number < 0)
+			placesRemaining--;
+		for (int digits = 1 ; digits <= 8 ; digits++) {
+			if (posValue < Math.pow(10, digits)) {
+				format = "0".repeat(digits);
+				break;
+			}
+		}
+		if (format == null) {
+			numStr = String.valueOf(number);
+		} else {
+			placesRemaining -= format.length();
+			if (placesRemaining > 0) {
+				format = format + ".";
+				placesRemaining--;
+			}
+			for (int cnt = 0 ; cnt < placesRemaining ; cnt++)
+				format = format + "#";
+			numStr = new DecimalFormat(format).format(number);
+		}
+		return pad(numStr, fieldSize);
+	}
+
+	private static String oldFixed(double number, int fieldSize, int decimalPlaces) {
+		String numStr;
+
+		if (Math.abs(number) >= 100000000.0) {
+			numStr = String.valueOf(number);
+		} else {
+			DecimalFormat form = new DecimalFormat("0." + "0".repeat(decimalPlaces));
+			form.setMinimumIntegerDigits(1);
+			numStr = form.format(number);
+		}
+		return pad(numStr, fieldSize);
+	}
+
+	private static String pad(String text, int fieldSize) {
+		String padding = " ".repeat(Math.max(0, fieldSize - text.length()));
+		return padding + text;
+	}
+}
@@ -0,0 +1,177 @@
+package com.ekakii729.graphicsLibrary;
+
+/**
+ * Parses numbers straight from characters in a char array, so that reading
+ * a number does not need a String for every token.
+ * <p>
+ * The results are exactly those of Long.parseLong, Double.parseDouble and
+ * Float.parseFloat on the same characters. Plain decimal numbers are
+ * converted here: whole numbers digit by digit, and decimals when the digits
+ * and the power of ten are both exactly representable, so a single multiply
+ * or divide gives the correctly rounded result. Anything else (too many
+ * digits, huge exponents, hex, "NaN", a type suffix, stray characters) is
+ * handed to the library parser on a String, which also produces the
+ * NumberFormatException for bad input.
+ * <p>
+ * @author Abhay Manoj
+ * @version 3.0
+ */
+final class NumberParser {
+
+	private static final double[] DOUBLE_POWERS_OF_TEN = {
+		1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+		1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+	};
+	private static final float[] FLOAT_POWERS_OF_TEN = {
+		1e0f, 1e1f, 1e2f, 1e3f, 1e4f, 1e5f, 1e6f, 1e7f, 1e8f, 1e9f, 1e10f
+	};
+
+	private NumberParser() {
+	}
+
+	/**
+	 * Parses a whole number in the given range, as Long.parseLong would
+	 * (Integer.parseInt etc. for the narrower types).
+	 * @throws NumberFormatException If the characters are not a whole number in range
+	 */
+	static long parseLong(char[] chars, int start, int end, long min, long max) {
+		int i = start;
+		boolean negative = false;
+		if (i < end && (chars [i] == '-' || chars [i] == '+')) {
+			negative = chars [i] == '-';
+			i++;
+		}
+		// 18 digits always fit in a long, so there's no overflow to check for
+		if (i == end || end - i > 18)
+			return parseLongSlowly (chars, start, end, min, max);
+		long value = 0;
+		for ( ; i < end ; i++) {
+			char ch = chars [i];
+			if (ch < '0' || ch > '9')
+				return parseLongSlowly (chars, start, end, min, max);
+			value = value * 10 + (ch - '0');
+		}
+		if (negative)
+			value = -value;
+		if (value < min || value > max)
+			throw new NumberFormatException ("Value out of range");
+		return value;
+	}
+
+	/**
+	 * Parses a double as Double.parseDouble would.
+	 * @throws NumberFormatException If the characters are not a number
+	 */
+	static double parseDouble(char[] chars, int start, int end) {
+		long decimal = scanDecimal (chars, start, end);
+		if (decimal != NOT_SIMPLE) {
+			long mantissa = mantissa (decimal);
+			int exponent = exponent (decimal);
+			// Both parts exact as doubles, so one rounding gives the right answer
+			if (Math.abs (exponent) <= 22) {
+				double value = exponent < 0 ? mantissa / DOUBLE_POWERS_OF_TEN [-exponent]
+						: mantissa * DOUBLE_POWERS_OF_TEN [exponent];
+				return chars [start] == '-' ? -value : value;
+			}
+		}
+		return Double.parseDouble (new String (chars, start, end - start));
+	}
+
+	/**
+	 * Parses a float as Float.parseFloat would.
+	 * @throws NumberFormatException If the characters are not a number
+	 */
+	static float parseFloat(char[] chars, int start, int end) {
+		long decimal = scanDecimal (chars, start, end);
+		if (decimal != NOT_SIMPLE) {
+			long mantissa = mantissa (decimal);
+			int exponent = exponent (decimal);
+			if (mantissa < (1L << 24) && Math.abs (exponent) <= 10) {
+				float value = exponent < 0 ? mantissa / FLOAT_POWERS_OF_TEN [-exponent]
+						: mantissa * FLOAT_POWERS_OF_TEN [exponent];
+				return chars [start] == '-' ? -value : value;
+			}
+		}
+		return Float.parseFloat (new String (chars, start, end - start));
+	}
+
+	// A simple decimal is packed into a long as its digits (up to 2^53, so
+	// 53 bits) and its power of ten (11 bits, offset so it is never negative).
+	private static final long NOT_SIMPLE = -1;
+	private static final int EXPONENT_BIAS = 1023;
+
+	private static long mantissa(long decimal) {
+		return decimal >>> 11;
+	}
+
+	private static int exponent(long decimal) {
+		return (int) (decimal & 0x7FF) - EXPONENT_BIAS;
+	}
+
+	/**
+	 * Reads [sign] digits [. digits] [e [sign] digits], with at least one
+	 * digit before the exponent, ignoring leading zeros.
+	 * @return The digits and power of ten packed together, or NOT_SIMPLE if
+	 *         the text is anything else or has too many digits to pack
+	 */
+	private static long scanDecimal(char[] chars, int start, int end) {
+		int i = start;
+		if (i < end && (chars [i] == '-' || chars [i] == '+'))
+			i++;
+		long digits = 0;
+		int significant = 0, exponent = 0;
+		boolean anyDigits = false, point = false;
+		for ( ; i < end ; i++) {
+			char ch = chars [i];
+			if (ch >= '0' && ch <= '9') {
+				anyDigits = true;
+				if (digits != 0 || ch != '0') {
+					if (++significant > 16)
+						return NOT_SIMPLE;
+					digits = digits * 10 + (ch - '0');
+				}
+				if (point)
+					exponent--;
+			} else if (ch == '.' && !point) {
+				point = true;
+			} else {
+				break;
+			}
+		}
+		if (!anyDigits)
+			return NOT_SIMPLE;
+		if (i < end) {
+			if (chars [i] != 'e' && chars [i] != 'E')
+				return NOT_SIMPLE;
+			i++;
+			boolean negative = false;
+			if (i < end && (chars [i] == '-' || chars [i] == '+')) {
+				negative = chars [i] == '-';
+				i++;
+			}
+			if (i == end || end - i > 3)
+				return NOT_SIMPLE;
+			int power = 0;
+			for ( ; i < end ; i++) {
+				char ch = chars [i];
+				if (ch < '0' || ch > '9')
+					return NOT_SIMPLE;
+				power = power * 10 + (ch - '0');
+			}
+			exponent += negative ? -power : power;
+		}
+		if (digits >= (1L << 53) || Math.abs (exponent) > EXPONENT_BIAS)
+			return NOT_SIMPLE;
+		// Zero is zero whatever the exponent
+		if (digits == 0)
+			exponent = 0;
+		return digits << 11 | (exponent + EXPONENT_BIAS);
+	}
+
+	private static long parseLongSlowly(char[] chars, int start, int end, long min, long max) {
+		long value = Long.parseLong (new String (chars, start, end - start));
+		if (value < min || value > max)
+			throw new NumberFormatException ("Value out of range");
+		return value;
+	}
+}
@@ -0,0 +1,156 @@
+package com.ekakii729.graphicsLibrary;
+
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.Image;
+import java.awt.Polygon;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.ObjIntConsumer;
+import java.util.function.Predicate;
+
+/**
+ * A GraphicsConsole drawing area with no window. It draws into the same
+ * off screen buffer through the same ConsoleCanvas code, so its frames are
+ * pixel for pixel what a GraphicsConsole would show, but it works with no
+ * display (java.awt.headless=true), as when rendering golden images on a
+ * build machine.
+ * <p>
+ * There is no keyboard or mouse, so there are never any events and
+ * waitFor returns straight away instead of pausing.
+ * <p>
+ * @author Abhay Manoj
+ * @version 3.0
+ */
+public class OffscreenConsole implements GraphicsSurface {
+
+	private static final int DEFAULT_FONTSIZE = 12;
+
+	private final ConsoleCanvas canvas;
+	private ObjIntConsumer<BufferedImage> frameListener = null;
+	private int frameNumber = 0;
+
+	/**
+	 * @param width Width of the drawing area in pixels
+	 * @param height Height of the drawing area in pixels
+	 */
+	public OffscreenConsole(int width, int height) {
+		canvas = new ConsoleCanvas(width, height, DEFAULT_FONTSIZE);
+	}
+
+	public void clear() {
+		canvas.clear();
+	}
+	public void clearRect(int x, int y, int width, int height) {
+		canvas.clearRect(x, y, width, height);
+	}
+	public void setColor(Color c) {
+		canvas.setColor(c);
+	}
+	public void setBackgroundColor(Color c) {
+		canvas.setBackgroundColor(c);
+	}
+	public void setFont(Font f) {
+		canvas.setFont(f);
+	}
+	public void setStroke(int strokeSize) {
+		canvas.setStroke(strokeSize);
+	}
+	public void setAntiAlias(boolean onOff) {
+		canvas.setAntiAlias(onOff);
+	}
+
+	public void drawLine(int x1, int y1, int x2, int y2) {
+		canvas.drawLine(x1, y1, x2, y2);
+	}
+	public void drawLines(int[] x1, int[] y1, int[] x2, int[] y2, int n) {
+		canvas.drawLines(x1, y1, x2, y2, n);
+	}
+	public void drawRect(int x, int y, int width, int height) {
+		canvas.drawRect(x, y, width, height);
+	}
+	public void fillRect(int x, int y, int width, int height) {
+		canvas.fillRect(x, y, width, height);
+	}
+	public void fillRoundRect(int x, int y, int width, int height, int xRadius, int yRadius) {
+		canvas.fillRoundRect(x, y, width, height, xRadius, yRadius);
+	}
+	public void drawOval(int x, int y, int width, int height) {
+		canvas.drawOval(x, y, width, height);
+	}
+	public void fillOval(int x, int y, int width, int height) {
+		canvas.fillOval(x, y, width, height);
+	}
+	public void drawPolygon(int[] x, int[] y, int n) {
+		canvas.drawPolygon(x, y, n);
+	}
+	public void fillPolygon(int[] x, int[] y, int n) {
+		canvas.fillPolygon(x, y, n);
+	}
+	public void drawStar(int x, int y, int width, int height) {
+		Polygon star = GraphicsConsole.starPolygon(x, y, width, height);
+		canvas.drawPolygon(star.xpoints, star.ypoints, star.npoints);
+	}
+	public void fillStar(int x, int y, int width, int height) {
+		Polygon star = GraphicsConsole.starPolygon(x, y, width, height);
+		canvas.fillPolygon(star.xpoints, star.ypoints, star.npoints);
+	}
+	public void drawString(String str, int x, int y) {
+		canvas.drawString(str, x, y);
+	}
+	public void drawImage(Image img, int x, int y) {
+		canvas.drawImage(img, x, y);
+	}
+	public void drawImage(Image img, int x, int y, int width, int height) {
+		canvas.drawImage(img, x, y, width, height);
+	}
+
+	/**
+	 * @return A copy of the drawing area
+	 */
+	public BufferedImage getScreenImage() {
+		return canvas.copyBuffer();
+	}
+	/**
+	 * Marks the end of an animation frame, handing a copy of the drawing
+	 * area to the frame listener if one has been set.
+	 */
+	public void endFrame() {
+		if (frameListener != null)
+			frameListener.accept(canvas.copyBuffer(), frameNumber);
+		frameNumber++;
+	}
+	/**
+	 * Sets the listener that endFrame() hands each finished frame to, and
+	 * restarts frame numbering at 0. Pass null to stop capturing frames.
+	 */
+	public void setFrameListener(ObjIntConsumer<BufferedImage> listener) {
+		frameListener = listener;
+		frameNumber = 0;
+	}
+
+	/**
+	 * @return VK_UNDEFINED, as no key is ever down
+	 */
+	public int getKeyCode() {
+		return GraphicsConsole.VK_UNDEFINED;
+	}
+	/**
+	 * @return An empty list, as there are no events
+	 */
+	public List<ConsoleEvent> drainEvents() {
+		return new ArrayList<ConsoleEvent>();
+	}
+	/**
+	 * No event can arrive, so this returns false at once rather than
+	 * waiting out the time.
+	 * @throws InterruptedException If the thread has been interrupted
+	 */
+	public boolean waitFor(long milliSeconds, Predicate<? super ConsoleEvent> wakeCondition)
+			throws InterruptedException {
+		if (Thread.interrupted())
+			throw new InterruptedException();
+		return false;
+	}
+}
@@ -0,0 +1,256 @@
+package com.ekakii729.graphicsLibrary;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Reads every number in a whitespace separated text file using all cores.
+ * Used by TextInputFile.readAllInts, readAllLongs and readAllDoubles.
+ * <p>
+ * The file is cut into pieces of about PIECE_SIZE bytes. Each piece is
+ * memory mapped and parsed on the common ForkJoinPool into its own array;
+ * a number belongs to the piece it starts in, so a piece skips a number cut
+ * off at its start and finishes the one running off its end. The arrays are
+ * then joined in file order.
+ * <p>
+ * The result is always what reading the file from start to end with
+ * readInt (readLong, readDouble) would give. Pieces only handle plain ASCII
+ * numbers; if a piece finds anything else (a quote, non-ASCII text, a token
+ * that is not a number) the whole file is read with TextInputFile instead,
+ * which reads it exactly as before and reports any error through FatalError.
+ * Gzipped files are always read that way.
+ * <p>
+ * @author Abhay Manoj
+ * @version 3.0
+ */
+class ParallelNumberReader {
+
+	static final int INTS = 0, LONGS = 1, DOUBLES = 2;
+
+	private static final long PIECE_SIZE = 8L << 20;
+	/** Longest number a piece will finish past its end; longer ones are not numbers anyway. **/
+	private static final int MAX_TOKEN_LENGTH = 4096;
+
+	/** Parses one piece of the file into ints, longs or doubles to match the kind. **/
+	private static class Piece {
+		final long start, end;
+		int[] ints;
+		long[] longs;
+		double[] doubles;
+		int count = 0;
+		/** Set if the piece has something it can't parse. **/
+		boolean failed = false;
+
+		Piece(long start, long end) {
+			this.start = start;
+			this.end = end;
+		}
+
+		void parse(FileChannel channel, long fileSize, int kind) throws IOException {
+			// Map one byte before the piece to see if it starts mid-number, and
+			// enough after it to finish the last number
+			long mapStart = Math.max(0, start - 1);
+			long mapEnd = Math.min(fileSize, end + MAX_TOKEN_LENGTH);
+			MappedByteBuffer bytes = channel.map(FileChannel.MapMode.READ_ONLY, mapStart, mapEnd - mapStart);
+			int pos = (int) (start - mapStart), limit = (int) (end - mapStart), mapLimit = bytes.limit();
+			if (kind == DOUBLES)
+				doubles = new double [1024];
+			else if (kind == LONGS)
+				longs = new long [1024];
+			else
+				ints = new int [1024];
+			char[] token = new char [64];
+
+			// Skip the rest of a number that started in the piece before
+			if (pos > 0)
+				while (pos < limit && !isWhitespace(bytes.get(pos - 1)))
+					pos++;
+			while (true) {
+				while (pos < limit && isWhitespace(bytes.get(pos)))
+					pos++;
+				if (pos >= limit)
+					return;
+				int length = 0;
+				byte b;
+				while (pos < mapLimit && !isWhitespace(b = bytes.get(pos))) {
+					if (b == '"' || b < 0 || length == MAX_TOKEN_LENGTH) {
+						failed = true;
+						return;
+					}
+					if (length == token.length)
+						token = Arrays.copyOf(token, length * 2);
+					token [length++] = (char) b;
+					pos++;
+				}
+				if (pos == mapLimit && mapEnd < fileSize) {
+					// The number runs on further than any number should
+					failed = true;
+					return;
+				}
+				try {
+					add(token, length, kind);
+				} catch (NumberFormatException e) {
+					failed = true;
+					return;
+				}
+			}
+		}
+
+		private void add(char[] token, int length, int kind) {
+			if (kind == DOUBLES) {
+				if (count == doubles.length)
+					doubles = Arrays.copyOf(doubles, count * 2);
+				doubles [count++] = NumberParser.parseDouble(token, 0, length);
+			} else if (kind == LONGS) {
+				if (count == longs.length)
+					longs = Arrays.copyOf(longs, count * 2);
+				longs [count++] = NumberParser.parseLong(token, 0, length, Long.MIN_VALUE, Long.MAX_VALUE);
+			} else {
+				if (count == ints.length)
+					ints = Arrays.copyOf(ints, count * 2);
+				ints [count++] = (int) NumberParser.parseLong(token, 0, length, Integer.MIN_VALUE, Integer.MAX_VALUE);
+			}
+		}
+	}
+
+	/** Splits the list of pieces in half until each task parses a single piece. **/
+	private static class ParseTask extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+		private final transient Piece[] pieces;
+		private final int from, to;
+		private final transient FileChannel channel;
+		private final long fileSize;
+		private final int kind;
+
+		ParseTask(Piece[] pieces, int from, int to, FileChannel channel, long fileSize, int kind) {
+			this.pieces = pieces;
+			this.from = from;
+			this.to = to;
+			this.channel = channel;
+			this.fileSize = fileSize;
+			this.kind = kind;
+		}
+
+		protected void compute() {
+			if (to - from == 1) {
+				try {
+					pieces [from].parse(channel, fileSize, kind);
+				} catch (IOException e) {
+					pieces [from].failed = true;
+				}
+				return;
+			}
+			int middle = (from + to) >>> 1;
+			invokeAll(new ParseTask(pieces, from, middle, channel, fileSize, kind),
+					new ParseTask(pieces, middle, to, channel, fileSize, kind));
+		}
+	}
+
+	private ParallelNumberReader() {
+	}
+
+	/**
+	 * Reads every number in the file.
+	 * @param kind INTS, LONGS or DOUBLES
+	 * @return An int[], long[] or double[] to match
+	 */
+	static Object readAll(String fileName, int kind) {
+		Piece[] pieces;
+		try {
+			// Compressed files can only be read from the start
+			if (TextInputFile.isGzipped(new File(fileName)))
+				return readAllSequentially(fileName, kind);
+		} catch (IOException e) {
+			new FatalError("Unable to open file \"" + fileName + "\"");
+			// Never reaches here
+			return null;
+		}
+		try (FileChannel channel = FileChannel.open(Paths.get(fileName), StandardOpenOption.READ)) {
+			long fileSize = channel.size();
+			int count = (int) Math.max(1, (fileSize + PIECE_SIZE - 1) / PIECE_SIZE);
+			pieces = new Piece [count];
+			for (int i = 0; i < count; i++)
+				pieces [i] = new Piece(i * PIECE_SIZE, Math.min(fileSize, (i + 1) * PIECE_SIZE));
+			ForkJoinPool.commonPool().invoke(new ParseTask(pieces, 0, count, channel, fileSize, kind));
+		} catch (IOException e) {
+			new FatalError("Unable to open file \"" + fileName + "\"");
+			// Never reaches here
+			return null;
+		}
+
+		long total = 0;
+		for (Piece piece : pieces) {
+			if (piece.failed)
+				return readAllSequentially(fileName, kind);
+			total += piece.count;
+		}
+		if (total > Integer.MAX_VALUE - 8) {
+			new FatalError("\"" + fileName + "\" has " + total + " numbers, too many for one array");
+			// Never reaches here
+			return null;
+		}
+		return join(pieces, (int) total, kind);
+	}
+
+	private static Object join(Piece[] pieces, int total, int kind) {
+		int pos = 0;
+		if (kind == DOUBLES) {
+			double[] result = new double [total];
+			for (Piece piece : pieces) {
+				System.arraycopy(piece.doubles, 0, result, pos, piece.count);
+				pos += piece.count;
+			}
+			return result;
+		}
+		if (kind == LONGS) {
+			long[] result = new long [total];
+			for (Piece piece : pieces) {
+				System.arraycopy(piece.longs, 0, result, pos, piece.count);
+				pos += piece.count;
+			}
+			return result;
+		}
+		int[] result = new int [total];
+		for (Piece piece : pieces) {
+			System.arraycopy(piece.ints, 0, result, pos, piece.count);
+			pos += piece.count;
+		}
+		return result;
+	}
+
+	/**
+	 * Reads the file one number at a time, for files the pieces can't handle.
+	 */
+	private static Object readAllSequentially(String fileName, int kind) {
+		TextInputFile f = TextInputFile.openMapped(fileName);
+		Object result;
+		if (kind == DOUBLES) {
+			result = f.doubles().toArray();
+		} else if (kind == LONGS) {
+			long[] longs = new long [1024];
+			int count = 0;
+			while (f.hasAnotherToken()) {
+				if (count == longs.length)
+					longs = Arrays.copyOf(longs, count * 2);
+				longs [count++] = f.readLong();
+			}
+			result = Arrays.copyOf(longs, count);
+		} else {
+			result = f.ints().toArray();
+		}
+		f.close();
+		return result;
+	}
+
+	/** The characters TextInputFile separates tokens with ('\r' is read as a newline). **/
+	private static boolean isWhitespace(byte b) {
+		return b == ' ' || b == '\n' || b == '\t' || b == '\r';
+	}
+}
@@ -0,0 +1,160 @@
+package com.ekakii729.graphicsLibrary;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Reads characters from a Reader on a background thread, keeping a fixed
+ * number of decoded chunks ready ahead of the program. A program that does
+ * a lot of work with what it reads (such as parsing a big data file while
+ * starting up) then has its disk reads and decoding done at the same time,
+ * instead of stopping for each one.
+ * <p>
+ * The chunks are reused: the background thread fills empty chunks and puts
+ * them in the full queue, and the reader hands each chunk back to the empty
+ * queue once it has read it. That also limits how far ahead the thread can
+ * get. The background thread is a daemon so it never keeps a program running.
+ * <p>
+ * @author Abhay Manoj
+ * @version 3.0
+ */
+class ReadAheadReader {
+
+	static final int END = -1;
+
+	private static class Chunk {
+		final char[] chars;
+		int length = 0;
+
+		Chunk(int size) {
+			chars = new char [size];
+		}
+	}
+
+	/** Put in the full queue after the last chunk. **/
+	private static final Chunk END_OF_INPUT = new Chunk(0);
+
+	/** The sizes it was started with, for starting it again at another place. **/
+	final int chunkCount, chunkSize;
+	private final Reader in;
+	private final BlockingQueue<Chunk> full, empty;
+	private final Thread thread;
+	/** Set by the background thread if reading failed; reported after the chunks read before it. **/
+	private volatile IOException error = null;
+	/** Chunk being read. Only touched by the reading thread. **/
+	private Chunk chunk = null;
+	private int chunkPos = 0;
+
+	/**
+	 * Starts reading ahead.
+	 * @param in Where to read from; closed by close()
+	 * @param name Name for the background thread
+	 * @param chunkCount Number of chunks to read ahead
+	 * @param chunkSize Characters in each chunk
+	 */
+	ReadAheadReader(Reader in, String name, int chunkCount, int chunkSize) {
+		this.in = in;
+		this.chunkCount = chunkCount;
+		this.chunkSize = chunkSize;
+		full = new ArrayBlockingQueue<Chunk>(chunkCount + 1);
+		empty = new ArrayBlockingQueue<Chunk>(chunkCount);
+		for (int cnt = 0; cnt < chunkCount; cnt++)
+			empty.add(new Chunk(chunkSize));
+		thread = new Thread(this::fill, "Read ahead: " + name);
+		thread.setDaemon(true);
+		thread.start();
+	}
+
+	/**
+	 * @return The next character, or END after the last one
+	 * @throws IOException If the background thread could not read the input
+	 */
+	int read() throws IOException {
+		if (chunkPos == chunk().length)
+			if (!nextChunk())
+				return END;
+		return chunk.chars [chunkPos++];
+	}
+
+	/**
+	 * @return The next character without reading it, or END if there is none
+	 * @throws IOException If the background thread could not read the input
+	 */
+	int peek() throws IOException {
+		if (chunkPos == chunk().length)
+			if (!nextChunk())
+				return END;
+		return chunk.chars [chunkPos];
+	}
+
+	/**
+	 * Stops the background thread and closes the input.
+	 */
+	void close() throws IOException {
+		thread.interrupt();
+		try {
+			thread.join();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		in.close();
+	}
+
+	private Chunk chunk() {
+		return chunk == null ? END_OF_INPUT : chunk;
+	}
+
+	/**
+	 * Hands the finished chunk back and waits for the next full one.
+	 * @return False at the end of the input
+	 */
+	private boolean nextChunk() throws IOException {
+		if (chunk == END_OF_INPUT) {
+			return false;
+		}
+		if (chunk != null)
+			empty.add(chunk);
+		try {
+			chunk = full.take();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException("Interrupted while waiting for input");
+		}
+		chunkPos = 0;
+		if (chunk == END_OF_INPUT) {
+			if (error != null)
+				throw error;
+			return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Run by the background thread: fills empty chunks until the input runs
+	 * out, reading each chunk as full as it can be.
+	 */
+	private void fill() {
+		try {
+			while (true) {
+				Chunk next = empty.take();
+				int count = 0, n = 0;
+				while (count < next.chars.length && (n = in.read(next.chars, count, next.chars.length - count)) != -1)
+					count += n;
+				next.length = count;
+				if (count > 0)
+					full.put(next);
+				if (n == -1)
+					break;
+			}
+		} catch (IOException e) {
+			error = e;
+		} catch (InterruptedException e) {
+			// Closed before the end of the input
+			return;
+		}
+		// Always room: there is one more place in the full queue than there are chunks
+		full.add(END_OF_INPUT);
+	}
+}
@@ -3,10 +3,27 @@ package com.ekakii729.graphicsLibrary;
 import java.io.BufferedReader;
 import java.io.EOFException;
 import java.io.File;
-import java.io.FileNotFoundException;
+import java.io.FileInputStream;
 import java.io.FileReader;
 import java.io.IOException;
 import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.function.DoubleConsumer;
+import java.util.function.IntConsumer;
+import java.util.stream.DoubleStream;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+import java.util.zip.GZIPInputStream;
 
 /**
  * The TextInputFile class reads text from a file. The class
@@ -14,6 +31,35 @@ import java.io.InputStreamReader;
  * adds methods to read all the Java primitive data types
  * with integrated error checking.  It also handles EOF.
  * <p>
+ * Large files can be opened with openMapped, which memory maps the file
+ * and reads characters and tokens straight from the mapped bytes instead
+ * of making a String for every line. The methods that read numbers parse
+ * the token's characters directly, without making a String for each one.
+ * <p>
+ * openReadAhead reads the file on a background thread, a few chunks ahead
+ * of the program, so that time spent working on the data overlaps with
+ * reading it from disk.
+ * <p>
+ * Whole arrays of numbers can be read with readInts, readLongs and
+ * readDoubles, and ints(), doubles() and tokens() give streams that read
+ * the rest of the file one token at a time as they are used.
+ * <p>
+ * readAllInts, readAllLongs and readAllDoubles read a whole file of
+ * numbers at once, parsing separate parts of the file on separate cores.
+ * <p>
+ * Files compressed with gzip are recognised when they are opened and
+ * decompressed as they are read, so they can be read like any other file.
+ * <p>
+ * seekLine jumps straight to any line of an uncompressed file. It uses an
+ * index of where each line starts, built in one pass over the file and
+ * kept in a sidecar file (the file's name with ".idx" added) so that it
+ * only has to be brought up to date when the file has been added to.
+ * <p>
+ * openFollow reads a file that another program is still writing to. At
+ * the end of the file, reading waits for more to be written (optionally
+ * only for so long) instead of reporting the end of the file, and carries
+ * on through the file being truncated or replaced by log rotation.
+ * <p>
  * Full documentation for the classes in the hsa package available at:
  * <br>
  *                      http://www.holtsoft.com/java/hsa_package.html
@@ -55,6 +101,43 @@ public class TextInputFile
 	protected String lineBuffer = "";       // The line of input read in from the file      .
 	int lineBufferPtr = 0;                  // The pointer in the line of input.
 	int ungotChar = EMPTY;                  // The next character to be read in.
+	char[] tokenChars = new char [64];      // The last token read in.
+
+	/**
+	 * Variables used when the file is memory mapped (channel is null otherwise).
+	 * The file is mapped a window at a time so files over 2 GB can be read.
+	 */
+	protected static final long MAP_WINDOW_SIZE = 1L << 30;
+	protected FileChannel channel = null;
+	protected MappedByteBuffer mapped = null;
+	protected long mappedEnd = 0;           // File position just past the mapped window.
+	protected long fileSize = 0;
+	int pendingLowSurrogate = EMPTY;        // Second half of a decoded supplementary character.
+	boolean lineOpen = false;               // Set if characters have been read since the last newline.
+
+	/**
+	 * Set when the file is being read ahead on a background thread.
+	 */
+	protected static final int DEFAULT_READ_AHEAD_CHUNKS = 4;
+	protected static final int DEFAULT_READ_AHEAD_CHUNK_SIZE = 64 * 1024;
+	protected ReadAheadReader readAhead = null;
+
+	/**
+	 * Size of the buffer compressed bytes are read into.
+	 */
+	protected static final int GZIP_BUFFER_SIZE = 64 * 1024;
+
+	/**
+	 * The file being read (null for standard input) and the index of its
+	 * lines, made when first needed by seekLine.
+	 */
+	protected File file = null;
+	protected LineIndex lineIndex = null;
+
+	/**
+	 * Set when following a file that is still being written.
+	 */
+	protected FollowInputStream follow = null;
 
 
 	/**
@@ -75,15 +158,15 @@ public class TextInputFile
 	{
 		try
 		{
-			FileReader fileReader = new FileReader (file);
-			f = new BufferedReader (fileReader);
+			f = new BufferedReader (openReader (file));
 		}
-		catch (FileNotFoundException e)
+		catch (IOException e)
 		{
 			new FatalError ("Unable to open file \"" + fileName + "\"");
 			// Never reaches here
 		}
 		this.fileName = file.getName ();
+		this.file = file;
 	} // Constructor - TextInputFile (File)
 
 
@@ -106,18 +189,212 @@ public class TextInputFile
 		{
 			try
 			{
-				f = new BufferedReader (new FileReader (new File (fileName)));
+				f = new BufferedReader (openReader (new File (fileName)));
 			}
-			catch (FileNotFoundException e)
+			catch (IOException e)
 			{
 				new FatalError ("Unable to open file \"" + fileName + "\"");
 				// Never reaches here
 			}
 			this.fileName = fileName;
+			this.file = new File (fileName);
 		}
 	} // Constructor - TextInputFile (String)
 
 
+	/**
+	 * Contructor - TextInputFile to read a memory mapped file.
+	 */
+	private TextInputFile (String fileName, FileChannel channel) throws IOException
+	{
+		this.fileName = fileName;
+		this.file = new File (fileName);
+		this.channel = channel;
+		fileSize = channel.size ();
+		mapped = channel.map (FileChannel.MapMode.READ_ONLY, 0,
+				Math.min (fileSize, MAP_WINDOW_SIZE));
+		mappedEnd = mapped.limit ();
+	} // Constructor - TextInputFile (String, FileChannel)
+
+
+	/**
+	 * Opens a file for reading by memory mapping it. Reads the same way as
+	 * a TextInputFile opened normally, but much faster on large files since
+	 * no String is made for each line. The file must be in UTF-8 (or ASCII).
+	 * A gzipped file can't be mapped, so it is opened normally instead.
+	 *
+	 * @param fileName - Name of the file to be opened.
+	 * @return The TextInputFile reading the file.
+	 */
+	public static TextInputFile openMapped (String fileName)
+	{
+		try
+		{
+			if (isGzipped (new File (fileName)))
+			{
+				return (new TextInputFile (fileName));
+			}
+			return (new TextInputFile (fileName,
+					FileChannel.open (Paths.get (fileName), StandardOpenOption.READ)));
+		}
+		catch (IOException e)
+		{
+			new FatalError ("Unable to open file \"" + fileName + "\"");
+			// Never reaches here
+		}
+		return (null);
+	} // TextInputFile openMapped (String)
+
+
+	/**
+	 * Contructor - TextInputFile to read from a background reader.
+	 */
+	private TextInputFile (String fileName, ReadAheadReader readAhead)
+	{
+		this.fileName = fileName;
+		this.file = new File (fileName);
+		this.readAhead = readAhead;
+	} // Constructor - TextInputFile (String, ReadAheadReader)
+
+
+	/**
+	 * Opens a file for reading on a background thread, which reads and
+	 * decodes up to 4 chunks of 64K characters ahead of the program.
+	 *
+	 * @param fileName - Name of the file to be opened.
+	 * @return The TextInputFile reading the file.
+	 */
+	public static TextInputFile openReadAhead (String fileName)
+	{
+		return (openReadAhead (fileName, DEFAULT_READ_AHEAD_CHUNKS,
+				DEFAULT_READ_AHEAD_CHUNK_SIZE));
+	} // TextInputFile openReadAhead (String)
+
+
+	/**
+	 * Opens a file for reading on a background thread, which reads and
+	 * decodes the file a chunk at a time, staying up to chunkCount chunks
+	 * ahead of the program.
+	 *
+	 * @param fileName - Name of the file to be opened.
+	 * @param chunkCount - Number of chunks to read ahead.
+	 * @param chunkSize - Number of characters in each chunk.
+	 * @return The TextInputFile reading the file.
+	 */
+	public static TextInputFile openReadAhead (String fileName, int chunkCount, int chunkSize)
+	{
+		if (chunkCount < 1 || chunkSize < 1)
+		{
+			new FatalError ("Read ahead needs at least one chunk of at least one character");
+			// Never reaches here
+		}
+		try
+		{
+			return (new TextInputFile (fileName, new ReadAheadReader (
+					openReader (new File (fileName)), fileName, chunkCount, chunkSize)));
+		}
+		catch (IOException e)
+		{
+			new FatalError ("Unable to open file \"" + fileName + "\"");
+			// Never reaches here
+		}
+		return (null);
+	} // TextInputFile openReadAhead (String, int, int)
+
+
+	/**
+	 * Contructor - TextInputFile to follow a file being written.
+	 */
+	private TextInputFile (String fileName, FollowInputStream follow)
+	{
+		this.fileName = fileName;
+		this.file = new File (fileName);
+		this.follow = follow;
+		f = new BufferedReader (new InputStreamReader (follow));
+	} // Constructor - TextInputFile (String, FollowInputStream)
+
+
+	/**
+	 * Opens a file that is still being written to and reads it from the
+	 * start. Reading at the end of the file waits, as long as it takes,
+	 * for more to be written. Compressed files can't be followed.
+	 *
+	 * @param fileName - Name of the file to be opened.
+	 * @return The TextInputFile reading the file.
+	 */
+	public static TextInputFile openFollow (String fileName)
+	{
+		return (openFollow (fileName, false, 0));
+	} // TextInputFile openFollow (String)
+
+
+	/**
+	 * Opens a file that is still being written to. Reading at the end of
+	 * the file waits for more to be written, for up to timeoutMillis
+	 * milliseconds; after that the file is treated as having ended (so
+	 * eof () returns true). Each read that reaches the end waits again.
+	 * A last line with no line ending after it is read once the wait runs
+	 * out; until then it is held back in case more of it is coming.
+	 *
+	 * @param fileName - Name of the file to be opened.
+	 * @param fromEnd - True to skip to the start of the last line, so only
+	 *        what is written from now on is read.
+	 * @param timeoutMillis - How long to wait for more, or 0 to wait forever.
+	 * @return The TextInputFile reading the file.
+	 */
+	public static TextInputFile openFollow (String fileName, boolean fromEnd, long timeoutMillis)
+	{
+		if (timeoutMillis < 0)
+		{
+			new FatalError ("The timeout for following a file can't be negative");
+			// Never reaches here
+		}
+		try
+		{
+			if (isGzipped (new File (fileName)))
+			{
+				new FatalError ("Unable to follow \"" + fileName + "\" because it is compressed");
+				// Never reaches here
+			}
+			return (new TextInputFile (fileName,
+					new FollowInputStream (Paths.get (fileName), fromEnd, timeoutMillis)));
+		}
+		catch (IOException e)
+		{
+			new FatalError ("Unable to open file \"" + fileName + "\"");
+			// Never reaches here
+		}
+		return (null);
+	} // TextInputFile openFollow (String, boolean, long)
+
+
+	/**
+	 * Opens a file to read characters from, decompressing it as it is read
+	 * if it is gzipped.
+	 */
+	static Reader openReader (File file) throws IOException
+	{
+		if (isGzipped (file))
+		{
+			return (new InputStreamReader (new GZIPInputStream (
+					new FileInputStream (file), GZIP_BUFFER_SIZE)));
+		}
+		return (new FileReader (file));
+	} // Reader openReader (File)
+
+
+	/**
+	 * Return whether a file starts with the gzip magic number.
+	 */
+	static boolean isGzipped (File file) throws IOException
+	{
+		try (FileInputStream in = new FileInputStream (file))
+		{
+			return (in.read () == 0x1f && in.read () == 0x8b);
+		}
+	} // boolean isGzipped (File)
+
+
 	/**
 	 * Close the file to further reading.
 	 */
@@ -134,6 +411,33 @@ public class TextInputFile
 		{
 			useStandardIO = false;
 		}
+		else if (channel != null)
+		{
+			try
+			{
+				channel.close ();
+			}
+			catch (IOException e)
+			{
+				new FatalError ("Close failed: Unable to close \"" + fileName + "\"");
+				// Never reaches here.
+			}
+			channel = null;
+			mapped = null;
+		}
+		else if (readAhead != null)
+		{
+			try
+			{
+				readAhead.close ();
+			}
+			catch (IOException e)
+			{
+				new FatalError ("Close failed: Unable to close \"" + fileName + "\"");
+				// Never reaches here.
+			}
+			readAhead = null;
+		}
 		else
 		{
 			try
@@ -229,6 +533,14 @@ public class TextInputFile
 			ungotChar = EMPTY;
 			return (ch);
 		}
+		if (channel != null)
+		{
+			return (readAMappedCharacter ());
+		}
+		if (readAhead != null)
+		{
+			return (readAReadAheadCharacter ());
+		}
 		if (lineBufferPtr < lineBuffer.length ())
 		{
 			return (lineBuffer.charAt (lineBufferPtr++));
@@ -239,6 +551,217 @@ public class TextInputFile
 	} // char readACharacterThrowsEOF (void)
 
 
+	/**
+	 * Read a single character from the memory mapped file, decoding UTF-8
+	 * and turning line endings into '\n' the way BufferedReader.readLine
+	 * does (including a final line with no line ending).
+	 *
+	 * @exception EOFException - Thrown if attempt to read past EOF.
+	 * @return The character read from the file.
+	 */
+	protected char readAMappedCharacter () throws EOFException
+	{
+		if (pendingLowSurrogate != EMPTY)
+		{
+			char ch = (char) pendingLowSurrogate;
+			pendingLowSurrogate = EMPTY;
+			return (ch);
+		}
+
+		int b = readAMappedByte ();
+		if (b == EMPTY)
+		{
+			if (lineOpen)
+			{
+				lineOpen = false;
+				return ('\n');
+			}
+			throw (new EOFException ());
+		}
+		if (b == '\n' || b == '\r')
+		{
+			// Treat "\r\n" as a single newline
+			if (b == '\r' && peekAMappedByte () == '\n')
+			{
+				readAMappedByte ();
+			}
+			lineOpen = false;
+			return ('\n');
+		}
+		lineOpen = true;
+		if (b < 0x80)
+		{
+			return ((char) b);
+		}
+		return (decodeUTF8 (b));
+	} // char readAMappedCharacter (void)
+
+
+	/**
+	 * Read a single character from the chunks read ahead, turning line
+	 * endings into '\n' the way BufferedReader.readLine does.
+	 *
+	 * @exception EOFException - Thrown if attempt to read past EOF.
+	 * @return The character read from the file.
+	 */
+	protected char readAReadAheadCharacter () throws EOFException
+	{
+		try
+		{
+			int ch = readAhead.read ();
+			if (ch == ReadAheadReader.END)
+			{
+				if (lineOpen)
+				{
+					lineOpen = false;
+					return ('\n');
+				}
+				throw (new EOFException ());
+			}
+			// Treat "\r\n" as a single newline
+			if (ch == '\r')
+			{
+				if (readAhead.peek () == '\n')
+				{
+					readAhead.read ();
+				}
+				ch = '\n';
+			}
+			lineOpen = (ch != '\n');
+			return ((char) ch);
+		}
+		catch (EOFException e)
+		{
+			throw (e);
+		}
+		catch (IOException e)
+		{
+			new FatalError ("Read on \"" + fileName + "\" failed: " + e);
+			// Never reaches here
+		}
+		return (0);
+	} // char readAReadAheadCharacter (void)
+
+
+	/**
+	 * Decode the rest of a UTF-8 sequence starting with the given byte.
+	 * Malformed sequences become U+FFFD, as Java's UTF-8 decoder does.
+	 *
+	 * @return The character (or first half of a surrogate pair) decoded.
+	 */
+	private char decodeUTF8 (int lead)
+	{
+		int count, codePoint, low = 0x80, high = 0xBF;
+
+		if (lead >= 0xC2 && lead <= 0xDF)
+		{
+			count = 1;
+			codePoint = lead & 0x1F;
+		}
+		else if (lead >= 0xE0 && lead <= 0xEF)
+		{
+			count = 2;
+			codePoint = lead & 0x0F;
+			if (lead == 0xE0)
+				low = 0xA0;
+		}
+		else if (lead >= 0xF0 && lead <= 0xF4)
+		{
+			count = 3;
+			codePoint = lead & 0x07;
+			if (lead == 0xF0)
+				low = 0x90;
+			else if (lead == 0xF4)
+				high = 0x8F;
+		}
+		else
+		{
+			return ('\uFFFD');
+		}
+
+		for (int cnt = 0 ; cnt < count ; cnt++)
+		{
+			int b = peekAMappedByte ();
+			if (b < low || b > high)
+			{
+				return ('\uFFFD');
+			}
+			readAMappedByte ();
+			codePoint = (codePoint << 6) | (b & 0x3F);
+			low = 0x80;
+			high = 0xBF;
+		}
+
+		// An encoded surrogate is replaced as a whole, as Java's decoder does
+		if (codePoint >= Character.MIN_SURROGATE && codePoint <= Character.MAX_SURROGATE)
+		{
+			return ('\uFFFD');
+		}
+		if (codePoint >= Character.MIN_SUPPLEMENTARY_CODE_POINT)
+		{
+			pendingLowSurrogate = Character.lowSurrogate (codePoint);
+			return (Character.highSurrogate (codePoint));
+		}
+		return ((char) codePoint);
+	} // char decodeUTF8 (int)
+
+
+	/**
+	 * Read the next byte of the memory mapped file, mapping the next window
+	 * of the file if needed.
+	 *
+	 * @return The byte, or EMPTY at the end of the file.
+	 */
+	private int readAMappedByte ()
+	{
+		if (!mapped.hasRemaining () && !mapNextWindow ())
+		{
+			return (EMPTY);
+		}
+		return (mapped.get () & 0xFF);
+	} // int readAMappedByte (void)
+
+
+	/**
+	 * Look at the next byte of the memory mapped file without reading it.
+	 *
+	 * @return The byte, or EMPTY at the end of the file.
+	 */
+	private int peekAMappedByte ()
+	{
+		if (!mapped.hasRemaining () && !mapNextWindow ())
+		{
+			return (EMPTY);
+		}
+		return (mapped.get (mapped.position ()) & 0xFF);
+	} // int peekAMappedByte (void)
+
+
+	/**
+	 * Map the part of the file after the current window.
+	 *
+	 * @return False if the whole file has been read.
+	 */
+	private boolean mapNextWindow ()
+	{
+		if (mappedEnd >= fileSize)
+		{
+			return (false);
+		}
+		try
+		{
+			mapped = channel.map (FileChannel.MapMode.READ_ONLY, mappedEnd,
+					Math.min (fileSize - mappedEnd, MAP_WINDOW_SIZE));
+			mappedEnd += mapped.limit ();
+		}
+		catch (IOException e)
+		{
+			new FatalError ("Read on \"" + fileName + "\" failed: " + e);
+		}
+		return (true);
+	} // boolean mapNextWindow (void)
+
+
 	/**
 	 * Reads a line from the file.
 	 *
@@ -286,6 +809,9 @@ public class TextInputFile
 			}
 			if (lineBuffer == null)
 			{
+				// Leave an empty line so that reading again also reports EOF
+				lineBuffer = "";
+				lineBufferPtr = 0;
 				throw (new EOFException ());
 			}
 			lineBuffer = lineBuffer + "\n";
@@ -311,9 +837,22 @@ public class TextInputFile
 	 */
 	protected String readAToken ()
 	{
-		char ch;
+		int length = readATokenIntoChars ();
 
-		StringBuffer sb = new StringBuffer ();
+		return (new String (tokenChars, 0, length));
+	} // String readAToken (void)
+
+
+	/**
+	 * Reads a token into tokenChars.  For a memory mapped file, plain ASCII
+	 * tokens are copied straight from the mapped bytes.
+	 *
+	 * @return The length of the token.
+	 */
+	protected int readATokenIntoChars ()
+	{
+		char ch;
+		int length = 0;
 
 		// Skip white space
 		do
@@ -328,8 +867,7 @@ public class TextInputFile
 			ch = readACharacter ();
 			while (ch != '"')
 			{
-				sb.append (ch);
-				;
+				length = addATokenChar (length, ch);
 				ch = readACharacter ();
 				if (ch == '\n')
 				{
@@ -341,20 +879,51 @@ public class TextInputFile
 			}
 
 			// Read the character following the close quote.
-			ch = readACharacter ();
+			skipWhitespaceAfterToken (readACharacter ());
+			return (length);
 		}
-		else
+
+		length = addATokenChar (length, ch);
+		if (channel != null && pendingLowSurrogate == EMPTY)
 		{
-			do
+			length = readMappedTokenBytes (length);
+		}
+		return (finishAToken (length));
+	} // int readATokenIntoChars (void)
+
+
+	/**
+	 * Reads the rest of a token into tokenChars, one character at a time.
+	 *
+	 * @return The new length of the token.
+	 */
+	private int finishAToken (int length)
+	{
+		char ch;
+
+		do
+		{
+			ch = readACharacter ();
+			if ((ch == ' ') || (ch == '\n') || (ch == '\t'))
 			{
-				sb.append (ch);
-				;
-				ch = readACharacter ();
+				break;
 			}
-			while ((ch != ' ') && (ch != '\n') && (ch != '\t'));
+			length = addATokenChar (length, ch);
 		}
+		while (true);
+
+		skipWhitespaceAfterToken (ch);
+		return (length);
+	} // int finishAToken (int)
 
-		// Lastly, skip any whitespace until the end of line
+
+	/**
+	 * Skips any whitespace after a token until the end of line.
+	 *
+	 * @param ch - The character after the token.
+	 */
+	private void skipWhitespaceAfterToken (char ch)
+	{
 		while ((ch == ' ') || (ch == '\t'))
 		{
 			ch = readACharacter ();
@@ -364,9 +933,200 @@ public class TextInputFile
 		{
 			pushACharacter (ch);
 		}
+	} // void skipWhitespaceAfterToken (char)
 
-		return (new String (sb));
-	} // String readAToken (void)
+
+	/**
+	 * Reads a token into tokenChars for the bulk reads.  For a memory
+	 * mapped file or the normal reader, plain tokens are scanned straight
+	 * out of the mapped window or the line buffer, without going through
+	 * readACharacter for every character.  Anything else (a quoted string,
+	 * a character that needs decoding, the end of the window or the file)
+	 * is left to the usual character by character reading, so the result
+	 * is the same as readATokenIntoChars.
+	 *
+	 * @return The length of the token.
+	 */
+	private int scanATokenIntoChars ()
+	{
+		if (closed || ungotChar != EMPTY || readAhead != null)
+		{
+			return (readATokenIntoChars ());
+		}
+		if (channel != null)
+		{
+			return (scanAMappedToken ());
+		}
+		return (scanALineBufferToken ());
+	} // int scanATokenIntoChars (void)
+
+
+	private int scanAMappedToken ()
+	{
+		if (pendingLowSurrogate != EMPTY)
+		{
+			return (readATokenIntoChars ());
+		}
+
+		// Skip white space
+		byte b;
+		while (true)
+		{
+			if (!mapped.hasRemaining () && !mapNextWindow ())
+			{
+				return (readATokenIntoChars ());
+			}
+			b = mapped.get (mapped.position ());
+			if ((b != ' ') && (b != '\n') && (b != '\t') && (b != '\r'))
+			{
+				break;
+			}
+			mapped.position (mapped.position () + 1);
+			lineOpen = (b == ' ') || (b == '\t');
+		}
+		if (b == '"')
+		{
+			return (readATokenIntoChars ());
+		}
+
+		int pos = mapped.position (), end = mapped.limit (), length = 0;
+		while ((pos < end) && ((b = mapped.get (pos)) > ' '))
+		{
+			if (length == tokenChars.length)
+			{
+				tokenChars = Arrays.copyOf (tokenChars, length * 2);
+			}
+			tokenChars [length++] = (char) b;
+			pos++;
+		}
+		mapped.position (pos);
+		lineOpen = true;
+		if ((pos == end) || ((b != ' ') && (b != '\n') && (b != '\t') && (b != '\r')))
+		{
+			return (finishAToken (length));
+		}
+
+		// Skip whitespace until the end of line
+		while ((pos < end) && (((b = mapped.get (pos)) == ' ') || (b == '\t')))
+		{
+			pos++;
+		}
+		mapped.position (pos);
+		if (pos == end)
+		{
+			skipWhitespaceAfterToken (' ');
+		}
+		else if ((b == '\n') || (b == '\r'))
+		{
+			readACharacter ();
+		}
+		return (length);
+	} // int scanAMappedToken (void)
+
+
+	private int scanALineBufferToken ()
+	{
+		String line = lineBuffer;
+		int pos = lineBufferPtr;
+		char ch;
+
+		// Skip white space, reading more lines as needed
+		while (true)
+		{
+			if (pos == line.length ())
+			{
+				try
+				{
+					readALineFromFile ();
+				}
+				catch (EOFException e)
+				{
+					return (readATokenIntoChars ());
+				}
+				line = lineBuffer;
+				pos = 0;
+				continue;
+			}
+			ch = line.charAt (pos);
+			if ((ch != ' ') && (ch != '\n') && (ch != '\t'))
+			{
+				break;
+			}
+			pos++;
+		}
+		lineBufferPtr = pos;
+		if (ch == '"')
+		{
+			return (readATokenIntoChars ());
+		}
+
+		// Each line ends in '\n', so the token ends in this line
+		int start = pos, end = line.length ();
+		while ((pos < end) && ((ch = line.charAt (pos)) != ' ') && (ch != '\n') && (ch != '\t'))
+		{
+			pos++;
+		}
+		int length = pos - start;
+		if (length > tokenChars.length)
+		{
+			tokenChars = new char [Math.max (length, tokenChars.length * 2)];
+		}
+		line.getChars (start, pos, tokenChars, 0);
+
+		// Skip whitespace until the end of line
+		while ((pos < end) && (((ch = line.charAt (pos)) == ' ') || (ch == '\t')))
+		{
+			pos++;
+		}
+		if ((pos < end) && (ch == '\n'))
+		{
+			pos++;
+		}
+		lineBufferPtr = pos;
+		return (length);
+	} // int scanALineBufferToken (void)
+
+
+	/**
+	 * Copies the rest of a token from the mapped bytes while they are plain
+	 * ASCII, stopping at whitespace or anything that needs decoding.
+	 *
+	 * @return The new length of the token.
+	 */
+	private int readMappedTokenBytes (int length)
+	{
+		while (true)
+		{
+			int start = mapped.position (), end = mapped.limit (), pos = start;
+			byte b;
+			while (pos < end && (b = mapped.get (pos)) > ' ')
+			{
+				if (length == tokenChars.length)
+				{
+					tokenChars = Arrays.copyOf (tokenChars, length * 2);
+				}
+				tokenChars [length++] = (char) b;
+				pos++;
+			}
+			mapped.position (pos);
+			// Carry on into the next window if the token runs off this one
+			if (pos < end || !mapNextWindow ())
+			{
+				return (length);
+			}
+		}
+	} // int readMappedTokenBytes (int)
+
+
+	private int addATokenChar (int length, char ch)
+	{
+		if (length == tokenChars.length)
+		{
+			tokenChars = Arrays.copyOf (tokenChars, length * 2);
+		}
+		tokenChars [length] = ch;
+		return (length + 1);
+	} // int addATokenChar (int, char)
 
 
 	/**
@@ -405,15 +1165,15 @@ public class TextInputFile
 	 */
 	public byte readByte ()
 	{
-		String s = readAToken ();
+		int length = readATokenIntoChars ();
 
 		try
 		{
-			return (Byte.parseByte (s));
+			return ((byte) NumberParser.parseLong (tokenChars, 0, length, Byte.MIN_VALUE, Byte.MAX_VALUE));
 		}
 		catch (NumberFormatException e)
 		{
-			new FatalError ("Unable to convert \"" + s + "\" to a byte");
+			new FatalError ("Unable to convert \"" + new String (tokenChars, 0, length) + "\" to a byte");
 			// Never reaches here
 		}
 		return (0);
@@ -466,17 +1226,15 @@ public class TextInputFile
 	 */
 	public double readDouble ()
 	{
-		Double d;
-		String s = readAToken ();
+		int length = readATokenIntoChars ();
 
 		try
 		{
-			d = Double.valueOf (s);
-			return (d.doubleValue ());
+			return (NumberParser.parseDouble (tokenChars, 0, length));
 		}
 		catch (NumberFormatException e)
 		{
-			new FatalError ("Unable to convert \"" + s + "\" to a double");
+			new FatalError ("Unable to convert \"" + new String (tokenChars, 0, length) + "\" to a double");
 			// Never reaches here
 		}
 		return (0.0);
@@ -490,17 +1248,15 @@ public class TextInputFile
 	 */
 	public float readFloat ()
 	{
-		Float f;
-		String s = readAToken ();
+		int length = readATokenIntoChars ();
 
 		try
 		{
-			f = Float.valueOf (s);
-			return (f.floatValue ());
+			return (NumberParser.parseFloat (tokenChars, 0, length));
 		}
 		catch (NumberFormatException e)
 		{
-			new FatalError ("Unable to convert \"" + s + "\" to a float");
+			new FatalError ("Unable to convert \"" + new String (tokenChars, 0, length) + "\" to a float");
 			// Never reaches here
 		}
 		return ((float) 0.0);
@@ -516,15 +1272,15 @@ public class TextInputFile
 	 */
 	public int readInt ()
 	{
-		String s = readAToken ();
+		int length = readATokenIntoChars ();
 
 		try
 		{
-			return (Integer.parseInt (s));
+			return ((int) NumberParser.parseLong (tokenChars, 0, length, Integer.MIN_VALUE, Integer.MAX_VALUE));
 		}
 		catch (NumberFormatException e)
 		{
-			new FatalError ("Unable to convert \"" + s + "\" to a int");
+			new FatalError ("Unable to convert \"" + new String (tokenChars, 0, length) + "\" to a int");
 			// Never reaches here
 		}
 		return (0);
@@ -560,15 +1316,15 @@ public class TextInputFile
 	 */
 	public long readLong ()
 	{
-		String s = readAToken ();
+		int length = readATokenIntoChars ();
 
 		try
 		{
-			return (Long.parseLong (s));
+			return (NumberParser.parseLong (tokenChars, 0, length, Long.MIN_VALUE, Long.MAX_VALUE));
 		}
 		catch (NumberFormatException e)
 		{
-			new FatalError ("Unable to convert \"" + s + "\" to a long");
+			new FatalError ("Unable to convert \"" + new String (tokenChars, 0, length) + "\" to a long");
 			// Never reaches here
 		}
 		return (0);
@@ -583,15 +1339,15 @@ public class TextInputFile
 	 */
 	public short readShort ()
 	{
-		String s = readAToken ();
+		int length = readATokenIntoChars ();
 
 		try
 		{
-			return (Short.parseShort (s));
+			return ((short) NumberParser.parseLong (tokenChars, 0, length, Short.MIN_VALUE, Short.MAX_VALUE));
 		}
 		catch (NumberFormatException e)
 		{
-			new FatalError ("Unable to convert \"" + s + "\" to a short");
+			new FatalError ("Unable to convert \"" + new String (tokenChars, 0, length) + "\" to a short");
 			// Never reaches here
 		}
 		return (0);
@@ -607,4 +1363,383 @@ public class TextInputFile
 	{
 		return (readAToken ());
 	} // String readString (void)
+
+
+	/**
+	 * Read len 32-bit integers (ints) from the file into an array.
+	 *
+	 * @param dest - The array to read into.
+	 * @param off - Where in the array to put the first number.
+	 * @param len - The number of numbers to read.
+	 */
+	public void readInts (int[] dest, int off, int len)
+	{
+		Objects.checkFromIndexSize (off, len, dest.length);
+		for (int end = off + len ; off < end ; off++)
+		{
+			int length = scanATokenIntoChars ();
+
+			try
+			{
+				dest [off] = (int) NumberParser.parseLong (tokenChars, 0, length, Integer.MIN_VALUE, Integer.MAX_VALUE);
+			}
+			catch (NumberFormatException e)
+			{
+				new FatalError ("Unable to convert \"" + new String (tokenChars, 0, length) + "\" to a int");
+				// Never reaches here
+			}
+		}
+	} // void readInts (int[], int, int)
+
+
+	/**
+	 * Read len 64-bit integers (longs) from the file into an array.
+	 *
+	 * @param dest - The array to read into.
+	 * @param off - Where in the array to put the first number.
+	 * @param len - The number of numbers to read.
+	 */
+	public void readLongs (long[] dest, int off, int len)
+	{
+		Objects.checkFromIndexSize (off, len, dest.length);
+		for (int end = off + len ; off < end ; off++)
+		{
+			int length = scanATokenIntoChars ();
+
+			try
+			{
+				dest [off] = NumberParser.parseLong (tokenChars, 0, length, Long.MIN_VALUE, Long.MAX_VALUE);
+			}
+			catch (NumberFormatException e)
+			{
+				new FatalError ("Unable to convert \"" + new String (tokenChars, 0, length) + "\" to a long");
+				// Never reaches here
+			}
+		}
+	} // void readLongs (long[], int, int)
+
+
+	/**
+	 * Read len double precision floating point numbers (doubles) from the
+	 * file into an array.
+	 *
+	 * @param dest - The array to read into.
+	 * @param off - Where in the array to put the first number.
+	 * @param len - The number of numbers to read.
+	 */
+	public void readDoubles (double[] dest, int off, int len)
+	{
+		Objects.checkFromIndexSize (off, len, dest.length);
+		for (int end = off + len ; off < end ; off++)
+		{
+			int length = scanATokenIntoChars ();
+
+			try
+			{
+				dest [off] = NumberParser.parseDouble (tokenChars, 0, length);
+			}
+			catch (NumberFormatException e)
+			{
+				new FatalError ("Unable to convert \"" + new String (tokenChars, 0, length) + "\" to a double");
+				// Never reaches here
+			}
+		}
+	} // void readDoubles (double[], int, int)
+
+
+	/**
+	 * Returns a stream of the ints in the rest of the file. Each one is read
+	 * when the stream gets to it, so the stream can be stopped early (for
+	 * example with limit) and the file read on afterwards.
+	 *
+	 * @return The stream of ints.
+	 */
+	public IntStream ints ()
+	{
+		return (StreamSupport.intStream (new Spliterators.AbstractIntSpliterator (
+				Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL)
+		{
+			public boolean tryAdvance (IntConsumer action)
+			{
+				if (!hasAnotherToken ())
+				{
+					return (false);
+				}
+				action.accept (readInt ());
+				return (true);
+			}
+		}, false));
+	} // IntStream ints (void)
+
+
+	/**
+	 * Returns a stream of the doubles in the rest of the file, read as the
+	 * stream gets to them.
+	 *
+	 * @return The stream of doubles.
+	 */
+	public DoubleStream doubles ()
+	{
+		return (StreamSupport.doubleStream (new Spliterators.AbstractDoubleSpliterator (
+				Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL)
+		{
+			public boolean tryAdvance (DoubleConsumer action)
+			{
+				if (!hasAnotherToken ())
+				{
+					return (false);
+				}
+				action.accept (readDouble ());
+				return (true);
+			}
+		}, false));
+	} // DoubleStream doubles (void)
+
+
+	/**
+	 * Returns a stream of the whitespace delimited tokens in the rest of the
+	 * file, read as the stream gets to them.
+	 *
+	 * @return The stream of tokens.
+	 */
+	public Stream<String> tokens ()
+	{
+		return (StreamSupport.stream (new Spliterators.AbstractSpliterator<String> (
+				Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL)
+		{
+			public boolean tryAdvance (Consumer<? super String> action)
+			{
+				if (!hasAnotherToken ())
+				{
+					return (false);
+				}
+				action.accept (readAToken ());
+				return (true);
+			}
+		}, false));
+	} // Stream<String> tokens (void)
+
+
+	/**
+	 * Reads every int in a file, using all of the computer's cores on a
+	 * large file. Gives the same numbers, in the same order, as opening
+	 * the file and calling readInt until the end of the file.
+	 *
+	 * @param fileName - Name of the file to be read.
+	 * @return The ints in the file.
+	 */
+	public static int[] readAllInts (String fileName)
+	{
+		return ((int[]) ParallelNumberReader.readAll (fileName, ParallelNumberReader.INTS));
+	} // int[] readAllInts (String)
+
+
+	/**
+	 * Reads every long in a file, using all of the computer's cores on a
+	 * large file, as readAllInts does.
+	 *
+	 * @param fileName - Name of the file to be read.
+	 * @return The longs in the file.
+	 */
+	public static long[] readAllLongs (String fileName)
+	{
+		return ((long[]) ParallelNumberReader.readAll (fileName, ParallelNumberReader.LONGS));
+	} // long[] readAllLongs (String)
+
+
+	/**
+	 * Reads every double in a file, using all of the computer's cores on a
+	 * large file, as readAllInts does.
+	 *
+	 * @param fileName - Name of the file to be read.
+	 * @return The doubles in the file.
+	 */
+	public static double[] readAllDoubles (String fileName)
+	{
+		return ((double[]) ParallelNumberReader.readAll (fileName, ParallelNumberReader.DOUBLES));
+	} // double[] readAllDoubles (String)
+
+
+	/**
+	 * Return the number of lines in the file, counting a last line that
+	 * has no line ending. Looks at the whole file the first time (or reads
+	 * the index saved by an earlier run) and only what has been added to
+	 * the file since after that.
+	 *
+	 * @return The number of lines in the file.
+	 */
+	public int getLineCount ()
+	{
+		updateLineIndex ();
+		return (lineIndex.getLineCount ());
+	} // int getLineCount (void)
+
+
+	/**
+	 * Move to the start of a line, so that the next thing read is the
+	 * beginning of that line. The first line of the file is line 0.
+	 * Seeking to the line just after the last one moves to the end of the file.
+	 *
+	 * @param lineNumber - The line to move to.
+	 */
+	public void seekLine (int lineNumber)
+	{
+		if (lineIndex == null || lineNumber >= lineIndex.getLineCount ())
+		{
+			// The file may have been added to since the index was made
+			updateLineIndex ();
+		}
+		if (lineNumber < 0 || lineNumber > lineIndex.getLineCount ())
+		{
+			new FatalError ("Line " + lineNumber + " is not in \"" + fileName +
+					"\", which has " + lineIndex.getLineCount () + " lines");
+			// Never reaches here.
+		}
+		seekTo (lineIndex.getLineStart (lineNumber));
+	} // void seekLine (int)
+
+
+	/**
+	 * Bring the line index up to date with the end of the file, loading it
+	 * from the sidecar file the first time and saving it if it changed.
+	 */
+	protected void updateLineIndex ()
+	{
+		if (closed)
+		{
+			new FatalError ("Seek failed: \"" + fileName + "\" is already closed.");
+			// Never reaches here.
+		}
+		if (useStandardIO)
+		{
+			new FatalError ("Unable to seek in standard input");
+			// Never reaches here.
+		}
+		File sidecar = new File (file.getPath () + ".idx");
+		try
+		{
+			if (isGzipped (file))
+			{
+				new FatalError ("Unable to seek in \"" + fileName + "\" because it is compressed");
+				// Never reaches here.
+			}
+			if (lineIndex == null)
+			{
+				lineIndex = LineIndex.load (sidecar);
+				if (lineIndex == null)
+				{
+					lineIndex = new LineIndex ();
+				}
+			}
+			boolean changed;
+			if (channel != null)
+			{
+				changed = lineIndex.update (channel);
+			}
+			else
+			{
+				try (FileChannel indexChannel = FileChannel.open (file.toPath (), StandardOpenOption.READ))
+				{
+					changed = lineIndex.update (indexChannel);
+				}
+			}
+			if (changed)
+			{
+				lineIndex.save (sidecar);
+			}
+		}
+		catch (IOException e)
+		{
+			new FatalError ("Unable to index the lines of \"" + fileName + "\": " + e);
+			// Never reaches here.
+		}
+	} // void updateLineIndex (void)
+
+
+	/**
+	 * Start reading again from a byte offset in the file, which must be
+	 * the start of a line.
+	 */
+	protected void seekTo (long offset)
+	{
+		try
+		{
+			if (channel != null)
+			{
+				// Pick up anything added to the file since it was opened
+				fileSize = channel.size ();
+				mapped = channel.map (FileChannel.MapMode.READ_ONLY, offset,
+						Math.min (fileSize - offset, MAP_WINDOW_SIZE));
+				mappedEnd = offset + mapped.limit ();
+			}
+			else if (readAhead != null)
+			{
+				ReadAheadReader old = readAhead;
+				old.close ();
+				readAhead = new ReadAheadReader (openReaderAt (offset), fileName,
+						old.chunkCount, old.chunkSize);
+			}
+			else if (follow != null)
+			{
+				// Keep following, dropping whatever was decoded past the old place
+				follow.seek (offset);
+				f = new BufferedReader (new InputStreamReader (follow));
+			}
+			else
+			{
+				f.close ();
+				f = new BufferedReader (openReaderAt (offset));
+			}
+		}
+		catch (IOException e)
+		{
+			new FatalError ("Seek on \"" + fileName + "\" failed: " + e);
+			// Never reaches here.
+		}
+		lineBuffer = "";
+		lineBufferPtr = 0;
+		ungotChar = EMPTY;
+		pendingLowSurrogate = EMPTY;
+		lineOpen = false;
+		eofFlag = false;
+	} // void seekTo (long)
+
+
+	/**
+	 * Opens the file to read characters from a byte offset, in the same
+	 * character set FileReader uses.
+	 */
+	private Reader openReaderAt (long offset) throws IOException
+	{
+		FileInputStream in = new FileInputStream (file);
+		in.getChannel ().position (offset);
+		return (new InputStreamReader (in));
+	} // Reader openReaderAt (long)
+
+
+	/**
+	 * Skip whitespace (including blank lines) and return whether there is
+	 * a token before the end of the file.
+	 *
+	 * @return Whether there is another token.
+	 */
+	protected boolean hasAnotherToken ()
+	{
+		try
+		{
+			char ch;
+			do
+			{
+				ch = readACharacterThrowsEOF ();
+			}
+			while ((ch == ' ') || (ch == '\n') || (ch == '\t'));
+			pushACharacter (ch);
+			return (true);
+		}
+		catch (EOFException e)
+		{
+			return (false);
+		}
+	} // boolean hasAnotherToken (void)
+
 } /* TextInputFile class */
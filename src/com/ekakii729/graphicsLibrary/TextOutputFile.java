@@ -1,16 +1,28 @@
 package com.ekakii729.graphicsLibrary;
 
 import java.io.File;
-import java.io.FileWriter;
+import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.PrintWriter;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.Charset;
+import java.nio.file.StandardOpenOption;
 import java.text.DecimalFormat;
 import java.text.NumberFormat;
+import java.util.zip.GZIPOutputStream;
 
 /**
  * The TextOutputFile writes text to a file. The class is a superset of
  * PrintWriter adding formatted output and integrated error checking.
  * <p>
+ * Text is encoded into a large buffer and written to the file's channel
+ * when the buffer fills (or on flush and close), with newlines turned into
+ * line separators on the way in.
+ * <p>
+ * A file whose name ends in ".gz" is compressed with gzip as it is
+ * written, and can be read back with TextInputFile.
+ * <p>
  * Full documentation for the classes in the hsa package available at:
  * <br>
  *                      http://www.holtsoft.com/java/hsa_package.html
@@ -26,9 +38,11 @@ public class TextOutputFile
 	protected String fileName;
 
 	/**
-	 * Streams used for the file
+	 * Streams used for the file. f writes into the same buffer as out,
+	 * for subclasses that print to it directly.
 	 */
 	protected PrintWriter f = null;
+	private ChannelWriter out = null;
 
 	/**
 	 * Set if the file has been closed.
@@ -45,6 +59,11 @@ public class TextOutputFile
 	 */
 	protected String lineSeparator = System.getProperty ("line.separator");
 
+	/**
+	 * Size of the buffer compressed bytes are gathered in.
+	 */
+	protected static final int GZIP_BUFFER_SIZE = 64 * 1024;
+
 
 	/**
 	 * Contructor - TextOutputFile to write to standard output.
@@ -78,12 +97,13 @@ public class TextOutputFile
 		{
 			if (append)
 			{
-				f = new PrintWriter (new FileWriter (file.getName (), append));
+				out = openWriter (new File (file.getName ()), append);
 			}
 			else
 			{
-				f = new PrintWriter (new FileWriter (file));
+				out = openWriter (file, false);
 			}
+			f = new PrintWriter (out);
 		}
 		catch (IOException e)
 		{
@@ -124,7 +144,8 @@ public class TextOutputFile
 		{
 			try
 			{
-				f = new PrintWriter (new FileWriter (fileName, append));
+				out = openWriter (new File (fileName), append);
+				f = new PrintWriter (out);
 			}
 			catch (IOException e)
 			{
@@ -136,6 +157,65 @@ public class TextOutputFile
 	} // Constructor - TextOutputFile (String, boolean)
 
 
+	/**
+	 * Opens a file to write characters to, in the same character set
+	 * FileWriter uses, compressing them with gzip if the file name ends in
+	 * ".gz". Appending to a gzipped file adds another gzip member, which is
+	 * read back as part of the same file. The gzip stream is made with
+	 * sync flush, so flushing it puts the compressed bytes for everything
+	 * written so far on disk. The file has no gzip ending until it is
+	 * closed, though, so it can't be read back as text before then.
+	 */
+	static ChannelWriter openWriter (File file, boolean append) throws IOException
+	{
+		WritableByteChannel channel;
+		if (file.getName ().toLowerCase ().endsWith (".gz"))
+		{
+			return (new ChannelWriter (new GZIPOutputStream (
+					new FileOutputStream (file, append), GZIP_BUFFER_SIZE, true),
+					Charset.defaultCharset ()));
+		}
+		else if (append)
+		{
+			channel = FileChannel.open (file.toPath (), StandardOpenOption.WRITE,
+					StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+		}
+		else
+		{
+			channel = FileChannel.open (file.toPath (), StandardOpenOption.WRITE,
+					StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING);
+		}
+		return (new ChannelWriter (channel, Charset.defaultCharset ()));
+	} // ChannelWriter openWriter (File, boolean)
+
+
+	/**
+	 * Write everything printed so far to the file. For a gzipped file the
+	 * compressed bytes are written, but the file can't be read as text
+	 * until it is closed.
+	 */
+	public void flush ()
+	{
+		if (closed)
+		{
+			new FatalError ("Write failed: \"" + fileName + "\" is already closed.");
+			// Never reaches here.
+		}
+		if (!useStandardIO)
+		{
+			try
+			{
+				out.flush ();
+			}
+			catch (IOException e)
+			{
+				new FatalError ("Write failed: Unable to write to \"" + fileName + "\"");
+				// Never reaches here.
+			}
+		}
+	} // flush (void)
+
+
 	/**
 	 * Close the file to further writing.
 	 */
@@ -154,13 +234,17 @@ public class TextOutputFile
 		}
 		else
 		{
-			f.close ();
-			if (f.checkError ())
+			try
+			{
+				out.close ();
+			}
+			catch (IOException e)
 			{
 				new FatalError ("Close failed: Unable to close \"" + fileName + "\"");
 				// Never reaches here.
 			}
 			f = null;
+			out = null;
 		}
 
 		closed = true;
@@ -484,19 +568,6 @@ public class TextOutputFile
 	 */
 	public void print (String text)
 	{
-		// Convert newline to line separators, if necessary.
-		if (!useStandardIO)
-		{
-			int newLinePosition = 0;
-			while (text.indexOf ('\n', newLinePosition) != -1)
-			{
-				newLinePosition = text.indexOf ('\n', newLinePosition);
-				text = text.substring (0, newLinePosition) + lineSeparator +
-						text.substring (newLinePosition + 1);
-				newLinePosition += lineSeparator.length ();
-			}
-		}
-
 		// Check if stream already closed.
 		if (closed)
 		{
@@ -518,10 +589,12 @@ public class TextOutputFile
 		}
 		else
 		{
-			// Sending output to PrintWriter
-			f.print (text);
-
-			if (f.checkError ())
+			// Sending output to the file, converting newlines to line separators
+			try
+			{
+				out.write (text, lineSeparator);
+			}
+			catch (IOException e)
 			{
 				new FatalError ("Write failed: Unable to write to \"" + fileName + "\"");
 				// Never reaches here.
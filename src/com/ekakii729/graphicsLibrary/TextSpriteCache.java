@@ -0,0 +1,153 @@
+package com.ekakii729.graphicsLibrary;
+
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.RenderingHints;
+import java.awt.font.FontRenderContext;
+import java.awt.image.BufferedImage;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Prerendered images of strings for drawString. Animations tend to draw the
+ * same labels every frame; after the first time each one is a single image
+ * blit instead of text layout and rasterisation.
+ * <p>
+ * Sprites are keyed by string, font, colour and anti-aliasing, and are
+ * rendered on a transparent background, so blitting one over the screen
+ * gives the same result as drawing the string there. The cache holds at most
+ * a fixed number of bytes and throws out the least recently drawn strings
+ * first. Each entry is charged for its string and bookkeeping as well as its
+ * image, so blank strings, which have no image, still count and get thrown
+ * out in turn.
+ * <p>
+ * @author Abhay Manoj
+ * @version 3.0
+ */
+class TextSpriteCache {
+
+	/** A rendered string and where its image sits relative to the drawString position. **/
+	static class Sprite {
+		final BufferedImage image;
+		final int dx, dy;
+
+		Sprite(BufferedImage image, int dx, int dy) {
+			this.image = image;
+			this.dx = dx;
+			this.dy = dy;
+		}
+	}
+
+	private static class Key {
+		private final String text;
+		private final Font font;
+		private final Color color;
+		private final boolean antiAlias;
+		private final int hash;
+
+		Key(String text, Font font, Color color, boolean antiAlias) {
+			this.text = text;
+			this.font = font;
+			this.color = color;
+			this.antiAlias = antiAlias;
+			hash = Objects.hash(text, font, color, antiAlias);
+		}
+
+		public int hashCode() {
+			return hash;
+		}
+
+		public boolean equals(Object o) {
+			if (!(o instanceof Key))
+				return false;
+			Key k = (Key) o;
+			return antiAlias == k.antiAlias && text.equals(k.text) && font.equals(k.font)
+					&& color.equals(k.color);
+		}
+	}
+
+	/** Stands in for strings with no visible pixels, such as spaces. **/
+	private static final Sprite BLANK = new Sprite(null, 0, 0);
+	/** Rough bytes taken by an entry apart from its image and the characters of its string. **/
+	private static final long ENTRY_OVERHEAD = 128;
+
+	private final long budget;
+	private long bytesUsed = 0;
+	private long hits = 0, misses = 0;
+	/** Access ordered, so the first entry is the least recently drawn. **/
+	private final LinkedHashMap<Key, Sprite> sprites = new LinkedHashMap<Key, Sprite>(64, 0.75f, true);
+
+	/**
+	 * @param budget Most bytes of sprite images to keep
+	 */
+	TextSpriteCache(long budget) {
+		this.budget = budget;
+	}
+
+	/**
+	 * Returns the sprite for a string, rendering and caching it if needed.
+	 * @return The sprite, with a null image if the string draws nothing, or
+	 *         null if the string is too big to cache and should be drawn directly
+	 */
+	synchronized Sprite get(String text, Font font, Color color, boolean antiAlias) {
+		Key key = new Key(text, font, color, antiAlias);
+		Sprite sprite = sprites.get(key);
+		if (sprite != null) {
+			hits++;
+			return sprite;
+		}
+		misses++;
+		sprite = render(text, font, color, antiAlias);
+		if (sprite == null)
+			return null;
+		sprites.put(key, sprite);
+		bytesUsed += size(key, sprite);
+		Iterator<Map.Entry<Key, Sprite>> eldest = sprites.entrySet().iterator();
+		while (bytesUsed > budget) {
+			Map.Entry<Key, Sprite> entry = eldest.next();
+			bytesUsed -= size(entry.getKey(), entry.getValue());
+			eldest.remove();
+		}
+		return sprite;
+	}
+
+	/**
+	 * @return Fraction of lookups (0 to 1) that found a sprite already rendered
+	 */
+	synchronized double getHitRate() {
+		long lookups = hits + misses;
+		return lookups == 0 ? 0 : (double) hits / lookups;
+	}
+
+	private Sprite render(String text, Font font, Color color, boolean antiAlias) {
+		FontRenderContext frc = new FontRenderContext(null, antiAlias, false);
+		Rectangle bounds = font.createGlyphVector(frc, text).getPixelBounds(frc, 0, 0);
+		if (bounds.isEmpty())
+			return BLANK;
+		// A pixel of slack all round for anti-aliased edges
+		bounds.grow(1, 1);
+		if ((long) bounds.width * bounds.height * 4 > budget)
+			return null;
+
+		BufferedImage image = new BufferedImage(bounds.width, bounds.height, BufferedImage.TYPE_INT_ARGB);
+		Graphics2D g = image.createGraphics();
+		if (antiAlias)
+			g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+		g.setFont(font);
+		g.setColor(color);
+		g.drawString(text, -bounds.x, -bounds.y);
+		g.dispose();
+		return new Sprite(image, bounds.x, bounds.y);
+	}
+
+	private static long size(Key key, Sprite sprite) {
+		long size = ENTRY_OVERHEAD + 2L * key.text.length();
+		if (sprite.image != null)
+			size += (long) sprite.image.getWidth() * sprite.image.getHeight() * 4;
+		return size;
+	}
+}